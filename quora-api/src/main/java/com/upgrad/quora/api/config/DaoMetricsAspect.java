@@ -0,0 +1,49 @@
+package com.upgrad.quora.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This aspect times every public method of the DAOs of quora-service in the quora.dao metric, tagged
+ * with the DAO and the method, so that the latency of an endpoint can be split between the database
+ * and the rest of the request. The percentiles are configured under management.metrics.distribution.
+ */
+@Aspect
+@Component
+public class DaoMetricsAspect {
+
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    @Around(
+            "within(com.upgrad.quora.service.dao..*) && @within(org.springframework.stereotype.Repository)"
+                    + " && execution(public * *(..))")
+    public Object time(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final Timer timer =
+                timers.computeIfAbsent(
+                        ((MethodSignature) joinPoint.getSignature()).getMethod(),
+                        method ->
+                                meterRegistry.timer(
+                                        "quora.dao",
+                                        "dao", method.getDeclaringClass().getSimpleName(),
+                                        "method", method.getName()));
+        final long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
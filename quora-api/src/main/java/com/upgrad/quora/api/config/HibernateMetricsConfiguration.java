@@ -0,0 +1,22 @@
+package com.upgrad.quora.api.config;
+
+import io.micrometer.core.instrument.binder.jpa.HibernateMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+/**
+ * This Configuration publishes the Hibernate statistics as metrics, among which the hits, misses
+ * and puts of every second-level cache region (hibernate.second.level.cache.requests, .puts) and of
+ * the query cache (hibernate.query.cache.requests, .puts).
+ */
+@Configuration
+public class HibernateMetricsConfiguration {
+
+    @Bean
+    public HibernateMetrics hibernateMetrics(final EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory, "entityManagerFactory", Collections.emptyList());
+    }
+}
@@ -1,16 +1,22 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.model.QueryStatisticsResponse;
 import com.upgrad.quora.api.model.UserDeleteResponse;
 import com.upgrad.quora.service.business.UserBusinessService;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.projection.QueryStatistic;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/admin")
 public class AdminController {
@@ -46,4 +52,41 @@ public class AdminController {
                 new UserDeleteResponse().id(deltedUser.getUuid()).status("USER SUCCESSFULLY DELETED");
         return new ResponseEntity<UserDeleteResponse>(userDeleteResponse, HttpStatus.OK);
     }
+
+    /**
+     * This method accepts an HTTP method of GET type & is used by an Admin user to read the
+     * statistics of the named queries run since the application started: executions, total and
+     * maximum time, rows and slow executions. Only an admin is authorized to access this endpoint. It
+     * produces a JSON Response, with HTTP status code as = OK(200) and the statistics of every query,
+     * the longest running in total first
+     *
+     * @param authorization
+     * @return List of Query Statistics Response models, HTTP status in a Response Entity object
+     * @throws AuthorizationFailedException
+     */
+    @RequestMapping(
+            method = RequestMethod.GET,
+            path = "/diagnostics/queries",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<List<QueryStatisticsResponse>> getQueryStatistics(
+            @RequestHeader("authorization") final String authorization)
+            throws AuthorizationFailedException {
+
+        List<QueryStatisticsResponse> queryStatisticsResponses = new ArrayList<>();
+        for (QueryStatistic queryStatistic : userBusinessService.getQueryStatistics(authorization)) {
+            queryStatisticsResponses.add(
+                    new QueryStatisticsResponse()
+                            .query(queryStatistic.getQueryName())
+                            .executionCount(queryStatistic.getExecutionCount())
+                            .totalTimeMs(toMillis(queryStatistic.getTotalNanos()))
+                            .maxTimeMs(toMillis(queryStatistic.getMaxNanos()))
+                            .rows(queryStatistic.getRowCount())
+                            .slowCount(queryStatistic.getSlowCount()));
+        }
+        return new ResponseEntity<List<QueryStatisticsResponse>>(queryStatisticsResponses, HttpStatus.OK);
+    }
+
+    private static Double toMillis(final long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
 }
@@ -1,19 +1,26 @@
 package com.upgrad.quora.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.upgrad.quora.api.model.*;
 import com.upgrad.quora.service.business.AnswerBusinessService;
+import com.upgrad.quora.service.cache.ListingVersion;
 import com.upgrad.quora.service.entity.AnswerEntity;
 import com.upgrad.quora.service.exception.AnswerNotFoundException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.projection.AnswerDetails;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.ZonedDateTime;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,6 +30,8 @@ public class AnswerController {
 
     @Autowired private AnswerBusinessService answerBusinessService;
 
+    @Autowired private ObjectMapper objectMapper;
+
     /**
      * This method handles the Http Request for posting an answer to a question
      *
@@ -107,10 +116,14 @@ public class AnswerController {
     }
 
     /**
-     * This method handles HTTP request to retreive list of asnwers for a particular question
+     * This method handles HTTP request to retreive list of asnwers for a particular question. The
+     * response carries the version of the answer listing of the question as ETag and Last-Modified; a
+     * request whose If-None-Match or If-Modified-Since matches it gets NOT_MODIFIED(304) without the
+     * answers being read
      *
      * @param questionId
      * @param accessToken
+     * @param webRequest
      * @return
      * @throws AuthorizationFailedException
      * @throws InvalidQuestionException
@@ -121,20 +134,72 @@ public class AnswerController {
             produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     public ResponseEntity<List<AnswerDetailsResponse>> getAllAnswersOfQuestion(
             @PathVariable("questionId") String questionId,
-            @RequestHeader("authorization") String accessToken)
+            @RequestHeader("authorization") String accessToken,
+            WebRequest webRequest)
             throws AuthorizationFailedException, InvalidQuestionException {
 
-        List<AnswerEntity> ansList =
+        // the version is read before the answers, so that it is never newer than them
+        ListingVersion version = answerBusinessService.getAnswersVersion(questionId, accessToken);
+        String eTag = "\"" + version.getTag() + "\"";
+        if (webRequest.checkNotModified(eTag, version.getLastModified())) {
+            return null;
+        }
+        List<AnswerDetails> ansList =
                 answerBusinessService.getAllAnswersOfQuestion(questionId, accessToken);
 
-        List<AnswerDetailsResponse> list = new LinkedList<AnswerDetailsResponse>();
-        for (AnswerEntity answerEntity : ansList) {
+        List<AnswerDetailsResponse> list = new ArrayList<AnswerDetailsResponse>(ansList.size());
+        for (AnswerDetails answerDetails : ansList) {
             AnswerDetailsResponse answerDetailsResponse = new AnswerDetailsResponse();
-            answerDetailsResponse.setId(answerEntity.getUuid());
-            answerDetailsResponse.setQuestionContent(answerEntity.getQuestionsEntity().getContent());
-            answerDetailsResponse.setAnswerContent(answerEntity.getAns());
+            answerDetailsResponse.setId(answerDetails.getUuid());
+            answerDetailsResponse.setQuestionContent(answerDetails.getQuestionContent());
+            answerDetailsResponse.setAnswerContent(answerDetails.getAns());
             list.add(answerDetailsResponse);
         }
-        return new ResponseEntity<List<AnswerDetailsResponse>>(list, HttpStatus.OK);
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setETag(eTag);
+        httpHeaders.setLastModified(version.getLastModified());
+        httpHeaders.setCacheControl("private, no-cache");
+        return new ResponseEntity<List<AnswerDetailsResponse>>(list, httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * This method handles HTTP request to retreive all the answers of a particular question in a
+     * single streamed response (stream=true). The answers are read from the database in fixed-size
+     * batches and every batch is written to the response before the next one is read, so the memory
+     * used does not depend on the number of answers
+     *
+     * @param questionId
+     * @param accessToken
+     * @return
+     * @throws AuthorizationFailedException
+     * @throws InvalidQuestionException
+     */
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/answer/all/{questionId}",
+            params = "stream=true",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllAnswersOfQuestion(
+            @PathVariable("questionId") String questionId,
+            @RequestHeader("authorization") String accessToken)
+            throws AuthorizationFailedException, InvalidQuestionException {
+
+        final Iterable<AnswerDetails> answers =
+                answerBusinessService.getAllAnswersOfQuestionInBatches(questionId, accessToken);
+        StreamingResponseBody body =
+                outputStream -> {
+                    JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+                    generator.writeStartArray();
+                    for (AnswerDetails answerDetails : answers) {
+                        AnswerDetailsResponse answerDetailsResponse = new AnswerDetailsResponse();
+                        answerDetailsResponse.setId(answerDetails.getUuid());
+                        answerDetailsResponse.setQuestionContent(answerDetails.getQuestionContent());
+                        answerDetailsResponse.setAnswerContent(answerDetails.getAns());
+                        generator.writeObject(answerDetailsResponse);
+                    }
+                    generator.writeEndArray();
+                    generator.flush();
+                };
+        return new ResponseEntity<StreamingResponseBody>(body, HttpStatus.OK);
     }
 }
@@ -2,14 +2,16 @@ package com.upgrad.quora.api.controller;
 
 import com.upgrad.quora.api.model.UserDetailsResponse;
 import com.upgrad.quora.service.business.UserBusinessService;
-import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.projection.UserProfile;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/")
@@ -23,11 +25,14 @@ public class CommonController {
      * are passed to the Service layer where the business logic implementation takes place. The
      * Endpoint corresponding to this method can be accessed by any user in the Application. Response
      * Entity generic class provided by Spring is used to map the UserDetailResponse as an object. It
-     * produces a JSON Response, with HTTP status code as = OK(200)
+     * produces a JSON Response, with HTTP status code as = OK(200) and the version of the profile as
+     * ETag. A request whose If-None-Match matches that ETag gets NOT_MODIFIED(304) without a body
      *
      * @param userUuid
      * @param authorization
-     * @return User Details Response model with HTTP status in a Response Entity object
+     * @param webRequest
+     * @return User Details Response model with HTTP status in a Response Entity object, or null when not
+     *     modified
      * @throws AuthorizationFailedException
      * @throws UserNotFoundException
      */
@@ -37,19 +42,29 @@ public class CommonController {
             produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     public ResponseEntity<UserDetailsResponse> getUser(
             @PathVariable("userId") final String userUuid,
-            @RequestHeader("authorization") final String authorization)
+            @RequestHeader("authorization") final String authorization,
+            final WebRequest webRequest)
             throws AuthorizationFailedException, UserNotFoundException {
-        final UserEntity userEntity = userBusinessService.getUserDetails(userUuid, authorization);
+        final UserProfile userProfile = userBusinessService.getUserDetails(userUuid, authorization);
+        final String eTag = "\"" + userProfile.getVersion() + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            // the status and the ETag of the 304 response are set by checkNotModified
+            return null;
+        }
         UserDetailsResponse userDetailsResponse =
                 new UserDetailsResponse()
-                        .firstName(userEntity.getFirstName())
-                        .lastName(userEntity.getLastName())
-                        .emailAddress(userEntity.getEmail())
-                        .aboutMe(userEntity.getAboutMe())
-                        .userName(userEntity.getUsername())
-                        .dob(userEntity.getDob())
-                        .contactNumber(userEntity.getContactNumber())
-                        .country(userEntity.getCountry());
-        return new ResponseEntity<UserDetailsResponse>(userDetailsResponse, HttpStatus.OK);
+                        .firstName(userProfile.getFirstName())
+                        .lastName(userProfile.getLastName())
+                        .emailAddress(userProfile.getEmail())
+                        .aboutMe(userProfile.getAboutMe())
+                        .userName(userProfile.getUsername())
+                        .dob(userProfile.getDob())
+                        .contactNumber(userProfile.getContactNumber())
+                        .country(userProfile.getCountry());
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setETag(eTag);
+        // the profile is only served to signed in users, so shared caches must not keep it
+        httpHeaders.setCacheControl("private, no-cache");
+        return new ResponseEntity<UserDetailsResponse>(userDetailsResponse, httpHeaders, HttpStatus.OK);
     }
 }
@@ -1,20 +1,29 @@
 package com.upgrad.quora.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.upgrad.quora.api.model.*;
 import com.upgrad.quora.service.business.QuestionBusinessService;
+import com.upgrad.quora.service.business.QuestionPage;
+import com.upgrad.quora.service.cache.ListingVersion;
 import com.upgrad.quora.service.entity.QuestionsEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.InvalidCursorException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.projection.AnswerSummary;
+import com.upgrad.quora.service.projection.QuestionDetails;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +37,8 @@ public class QuestionController {
 
     @Autowired QuestionBusinessService questionBusinessService;
 
+    @Autowired private ObjectMapper objectMapper;
+
     /**
      * This method used to handle http request of user to create/post a new question
      *
@@ -57,28 +68,186 @@ public class QuestionController {
     }
 
     /**
-     * This method is used to handle http request by user to get all the available questions on quora
-     * application
+     * This method is used to handle http request by user to get the available questions on quora
+     * application, one page at a time and newest first. When there are more questions, the cursor of
+     * the next page is returned in the "next-cursor" response header. The response carries the version
+     * of the question listing as ETag and Last-Modified; a request whose If-None-Match or
+     * If-Modified-Since matches it gets NOT_MODIFIED(304) without the questions being read
      *
      * @param accessToken
+     * @param cursor "next-cursor" header value of the previous page, absent for the first page
+     * @param limit requested page size
+     * @param webRequest
      * @return returns ResponseEntity enbedded with model object or error object
      * @throws AuthorizationFailedException
+     * @throws InvalidCursorException
      */
     @RequestMapping(
             method = RequestMethod.GET,
             value = "/all",
             produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     public ResponseEntity<List<QuestionDetailsResponse>> getAllQuestions(
+            @RequestHeader("authorization") String accessToken,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest webRequest)
+            throws AuthorizationFailedException, InvalidCursorException {
+
+        // the version is read before the questions, so that it is never newer than them
+        ListingVersion version = questionBusinessService.getQuestionsVersion(accessToken);
+        String eTag = "\"" + version.getTag() + "\"";
+        if (webRequest.checkNotModified(eTag, version.getLastModified())) {
+            return null;
+        }
+        QuestionPage page = questionBusinessService.getQuestionPage(accessToken, cursor, limit);
+        List<QuestionDetailsResponse> list = new ArrayList<QuestionDetailsResponse>(page.getQuestions().size());
+        for (QuestionDetails questionDetails : page.getQuestions()) {
+            QuestionDetailsResponse response = new QuestionDetailsResponse();
+            response.setId(questionDetails.getUuid());
+            response.setContent(questionDetails.getContent());
+            list.add(response);
+        }
+        HttpHeaders httpHeaders = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            httpHeaders.set("next-cursor", page.getNextCursor());
+        }
+        httpHeaders.setETag(eTag);
+        httpHeaders.setLastModified(version.getLastModified());
+        httpHeaders.setCacheControl("private, no-cache");
+        return new ResponseEntity<List<QuestionDetailsResponse>>(list, httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * This method is used to handle http request by user to get the available questions on quora
+     * application one page at a time, like getAllQuestions, with the number of answers and the date of
+     * the latest answer of every question (summary=true), so that a question feed does not need a
+     * request per question. The version in the ETag and Last-Modified headers also changes with the
+     * answers
+     *
+     * @param accessToken
+     * @param cursor "next-cursor" header value of the previous page, absent for the first page
+     * @param limit requested page size
+     * @param webRequest
+     * @return returns ResponseEntity enbedded with model object or error object
+     * @throws AuthorizationFailedException
+     * @throws InvalidCursorException
+     */
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/all",
+            params = {"summary=true", "stream!=true"},
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<List<QuestionSummaryResponse>> getAllQuestionSummaries(
+            @RequestHeader("authorization") String accessToken,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest webRequest)
+            throws AuthorizationFailedException, InvalidCursorException {
+
+        // the version is read before the questions, so that it is never newer than them
+        ListingVersion version = questionBusinessService.getQuestionSummariesVersion(accessToken);
+        String eTag = "\"" + version.getTag() + "\"";
+        if (webRequest.checkNotModified(eTag, version.getLastModified())) {
+            return null;
+        }
+        QuestionPage page = questionBusinessService.getQuestionSummaryPage(accessToken, cursor, limit);
+        List<QuestionSummaryResponse> list = new ArrayList<QuestionSummaryResponse>(page.getQuestions().size());
+        for (QuestionDetails questionDetails : page.getQuestions()) {
+            AnswerSummary answerSummary = page.getAnswerSummary(questionDetails);
+            QuestionSummaryResponse response = new QuestionSummaryResponse();
+            response.setId(questionDetails.getUuid());
+            response.setContent(questionDetails.getContent());
+            response.setAnswerCount(answerSummary.getAnswerCount());
+            if (answerSummary.getLatestAnswerDate() != null) {
+                response.setLatestAnswerDate(answerSummary.getLatestAnswerDate().toOffsetDateTime());
+            }
+            list.add(response);
+        }
+        HttpHeaders httpHeaders = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            httpHeaders.set("next-cursor", page.getNextCursor());
+        }
+        httpHeaders.setETag(eTag);
+        httpHeaders.setLastModified(version.getLastModified());
+        httpHeaders.setCacheControl("private, no-cache");
+        return new ResponseEntity<List<QuestionSummaryResponse>>(list, httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * This method is used to handle http request by user to get all the available questions on quora
+     * application in a single response (stream=true). The questions are read from the database in
+     * fixed-size batches and every batch is written to the response before the next one is read, so
+     * the memory used does not depend on the number of questions
+     *
+     * @param accessToken
+     * @return returns ResponseEntity enbedded with a body that streams a JSON array of
+     *     QuestionDetailsResponse
+     * @throws AuthorizationFailedException
+     */
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/all",
+            params = "stream=true",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllQuestions(
             @RequestHeader("authorization") String accessToken) throws AuthorizationFailedException {
 
-        List<QuestionDetailsResponse> list = new LinkedList<QuestionDetailsResponse>();
-        for (QuestionsEntity questionsEntity : questionBusinessService.getQuestionList(accessToken)) {
+        final Iterable<QuestionDetails> questions =
+                questionBusinessService.getAllQuestionsInBatches(accessToken);
+        StreamingResponseBody body =
+                outputStream -> {
+                    JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+                    generator.writeStartArray();
+                    for (QuestionDetails questionDetails : questions) {
+                        generator.writeObject(
+                                new QuestionDetailsResponse()
+                                        .id(questionDetails.getUuid())
+                                        .content(questionDetails.getContent()));
+                    }
+                    generator.writeEndArray();
+                    generator.flush();
+                };
+        return new ResponseEntity<StreamingResponseBody>(body, HttpStatus.OK);
+    }
+
+    /**
+     * This method is used to handle http request by user to search the questions on quora application
+     * whose content or one of whose answers contains the words of the query, one page at a time and
+     * best match first. When there are more matches, the cursor of the next page is returned in the
+     * "next-cursor" response header
+     *
+     * @param accessToken
+     * @param query searched words
+     * @param cursor "next-cursor" header value of the previous page, absent for the first page
+     * @param limit requested page size
+     * @return returns ResponseEntity enbedded with model object or error object
+     * @throws AuthorizationFailedException
+     * @throws InvalidCursorException
+     */
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/search",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<List<QuestionDetailsResponse>> searchQuestions(
+            @RequestHeader("authorization") String accessToken,
+            @RequestParam("query") String query,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit)
+            throws AuthorizationFailedException, InvalidCursorException {
+
+        QuestionPage page = questionBusinessService.searchQuestions(accessToken, query, cursor, limit);
+        List<QuestionDetailsResponse> list = new ArrayList<QuestionDetailsResponse>(page.getQuestions().size());
+        for (QuestionDetails questionDetails : page.getQuestions()) {
             QuestionDetailsResponse response = new QuestionDetailsResponse();
-            response.setId(questionsEntity.getUuid());
-            response.setContent(questionsEntity.getContent());
+            response.setId(questionDetails.getUuid());
+            response.setContent(questionDetails.getContent());
             list.add(response);
         }
-        return new ResponseEntity<List<QuestionDetailsResponse>>(list, HttpStatus.OK);
+        HttpHeaders httpHeaders = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            httpHeaders.set("next-cursor", page.getNextCursor());
+        }
+        return new ResponseEntity<List<QuestionDetailsResponse>>(list, httpHeaders, HttpStatus.OK);
     }
 
     /**
@@ -158,10 +327,10 @@ public class QuestionController {
             @RequestHeader("authorization") final String accessToken)
             throws AuthorizationFailedException, UserNotFoundException {
 
-        List<QuestionsEntity> questions =
+        List<QuestionDetails> questions =
                 questionBusinessService.getQuestionsForUserId(userId, accessToken);
-        List<QuestionResponse> questionsResponse = new ArrayList<>();
-        for (QuestionsEntity question : questions) {
+        List<QuestionResponse> questionsResponse = new ArrayList<>(questions.size());
+        for (QuestionDetails question : questions) {
             QuestionResponse qResponse =
                     new QuestionResponse().id(question.getUuid()).status(question.getContent());
             questionsResponse.add(qResponse);
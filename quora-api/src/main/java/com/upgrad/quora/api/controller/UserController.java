@@ -1,16 +1,23 @@
 package com.upgrad.quora.api.controller;
 
-import com.upgrad.quora.api.model.SigninResponse;
-import com.upgrad.quora.api.model.SignoutResponse;
-import com.upgrad.quora.api.model.SignupUserRequest;
-import com.upgrad.quora.api.model.SignupUserResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.api.model.*;
+import com.upgrad.quora.service.business.LoginRateLimiter;
+import com.upgrad.quora.service.business.PasswordHashingExecutor;
 import com.upgrad.quora.service.business.UserBusinessService;
+import com.upgrad.quora.service.business.UserImportOutcome;
+import com.upgrad.quora.service.common.GenericExceptionCode;
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
-import com.upgrad.quora.service.exception.AuthenticationFailedException;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.InvalidImportException;
+import com.upgrad.quora.service.exception.ServiceUnavailableException;
 import com.upgrad.quora.service.exception.SignOutRestrictedException;
-import com.upgrad.quora.service.exception.SignUpRestrictedException;
+import com.upgrad.quora.service.exception.TooManyRequestsException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -20,8 +27,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/user") // confusion with root context for rest calls (i.e default, custom)
@@ -29,48 +41,50 @@ public class UserController {
 
     @Autowired private UserBusinessService userBusinessService;
 
+    @Autowired private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired private LoginRateLimiter loginRateLimiter;
+
+    @Autowired private ObjectMapper objectMapper;
+
+    @Value("${quora.user-import.max-rows:10000}")
+    private int importMaxRows;
+
     /**
      * This method accepts an HTTP method of POST type and is used to sign-up a user using the
      * SignUpUserRequest model. The corresponding fields of the user are set using the Request model
      * fields. These parameters are passed to the Service layer where the business logic
      * implementation takes place. Response Entity generic class provided Spring is used to map the
      * SignupUserResponse as an object. It produces a JSON Response,with HTTP status code as =
-     * CREATED(201) and corresponding message
+     * CREATED(201) and corresponding message. The request is processed asynchronously on the password
+     * hashing threads
      *
      * @param signupUserRequest
-     * @return Sign up Response model & HTTP status in a Response Entity object
-     * @throws SignUpRestrictedException
+     * @return Sign up Response model & HTTP status in a Response Entity object, once the user is
+     *     registered
+     * @throws ServiceUnavailableException if too many passwords are waiting to be hashed
      */
     @RequestMapping(
             method = RequestMethod.POST,
             path = "/signup",
             consumes = MediaType.APPLICATION_JSON_UTF8_VALUE,
             produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<SignupUserResponse> userSignUp(final SignupUserRequest signupUserRequest)
-            throws SignUpRestrictedException {
+    public CompletableFuture<ResponseEntity<SignupUserResponse>> userSignUp(
+            final SignupUserRequest signupUserRequest) throws ServiceUnavailableException {
 
-        UserEntity userEntity = new UserEntity();
-        userEntity.setUuid(UUID.randomUUID().toString());
-        userEntity.setFirstName(signupUserRequest.getFirstName());
-        userEntity.setLastName(signupUserRequest.getLastName());
-        userEntity.setUsername(signupUserRequest.getUserName());
-        userEntity.setEmail(signupUserRequest.getEmailAddress());
-        userEntity.setPassword(signupUserRequest.getPassword());
-        userEntity.setCountry(signupUserRequest.getCountry());
-        userEntity.setAboutMe(signupUserRequest.getAboutMe());
-        userEntity.setDob(signupUserRequest.getDob());
-        userEntity.setCountry(signupUserRequest.getCountry());
-        userEntity.setContactNumber(signupUserRequest.getContactNumber());
-        userEntity.setRole("nonadmin");
+        UserEntity userEntity = toUserEntity(signupUserRequest);
 
-        UserEntity createdUserEntity = userBusinessService.signUp(userEntity);
+        return passwordHashingExecutor.submit(
+                () -> {
+                    UserEntity createdUserEntity = userBusinessService.signUp(userEntity);
 
-        SignupUserResponse userResponse =
-                new SignupUserResponse()
-                        .id(createdUserEntity.getUuid())
-                        .status("USER SUCCESSFULLY REGISTERED");
+                    SignupUserResponse userResponse =
+                            new SignupUserResponse()
+                                    .id(createdUserEntity.getUuid())
+                                    .status("USER SUCCESSFULLY REGISTERED");
 
-        return new ResponseEntity<SignupUserResponse>(userResponse, HttpStatus.CREATED);
+                    return new ResponseEntity<SignupUserResponse>(userResponse, HttpStatus.CREATED);
+                });
     }
 
     /**
@@ -78,32 +92,42 @@ public class UserController {
      * The access token of the Signed in User is provided as an input and is decoded and passed to the
      * Service Layer for authentication purpose. Response Entity generic class provided Spring is used
      * to map the SigninResponse as an object. It produces a JSON Response,with HTTP status code as =
-     * OK(200) and corresponding message
+     * OK(200) and corresponding message. The attempt is first counted against the sign in limits of
+     * the client address and the username, then the password is verified asynchronously on the
+     * password hashing threads
      *
      * @param authorisationHeader
-     * @return Sign in Response model with HTTP header, HTTP status in a Response Entity object
-     * @throws AuthenticationFailedException
+     * @param httpServletRequest
+     * @return Sign in Response model with HTTP header, HTTP status in a Response Entity object, once
+     *     the user is authenticated
+     * @throws TooManyRequestsException if the client or the username made too many sign in attempts
+     * @throws ServiceUnavailableException if too many passwords are waiting to be hashed
      */
     @RequestMapping( // spring default exception handling for internal error
             method = RequestMethod.POST,
             value = "/signin",
             produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<SigninResponse> userLogin(
-            @RequestHeader("authorization") String authorisationHeader)
-            throws AuthenticationFailedException {
+    public CompletableFuture<ResponseEntity<SigninResponse>> userLogin(
+            @RequestHeader("authorization") String authorisationHeader,
+            HttpServletRequest httpServletRequest)
+            throws TooManyRequestsException, ServiceUnavailableException {
         // decoding header
-        SigninResponse signinResponse = new SigninResponse();
         byte[] decode = Base64.getDecoder().decode(authorisationHeader.split("Basic ")[1]);
         String decodedText = new String(decode); // convert byte[] to string
         String[] credentials = decodedText.split(":");
-        UserAuthTokenEntity userAuthTokenEntity =
-                userBusinessService.userLogin(credentials[0], credentials[1]);
-        signinResponse.setId(userAuthTokenEntity.getUsers().getUuid());
-        signinResponse.setMessage("SIGNED IN SUCCESSFULLY");
-        HttpHeaders httpHeaders = new HttpHeaders();
-        httpHeaders.set("access-token", userAuthTokenEntity.getAccess_token());
-
-        return new ResponseEntity<SigninResponse>(signinResponse, httpHeaders, HttpStatus.OK);
+        loginRateLimiter.checkSignin(credentials[0], httpServletRequest.getRemoteAddr());
+        return passwordHashingExecutor.submit(
+                () -> {
+                    UserAuthTokenEntity userAuthTokenEntity =
+                            userBusinessService.userLogin(credentials[0], credentials[1]);
+                    SigninResponse signinResponse = new SigninResponse();
+                    signinResponse.setId(userAuthTokenEntity.getUsers().getUuid());
+                    signinResponse.setMessage("SIGNED IN SUCCESSFULLY");
+                    HttpHeaders httpHeaders = new HttpHeaders();
+                    httpHeaders.set("access-token", userAuthTokenEntity.getAccess_token());
+
+                    return new ResponseEntity<SigninResponse>(signinResponse, httpHeaders, HttpStatus.OK);
+                });
     }
 
     /**
@@ -132,4 +156,81 @@ public class UserController {
         signoutResponse.setMessage("SIGNED OUT SUCCESSFULLY");
         return new ResponseEntity<SignoutResponse>(signoutResponse, HttpStatus.OK);
     }
+
+    /**
+     * This method accepts an HTTP method of POST type and is used by an admin to register users in
+     * bulk. The body is either a JSON array of SignupUserRequest or one SignupUserRequest per line
+     * (NDJSON). The users are passed to the Service layer which registers every row on its own. It
+     * produces a JSON Response with HTTP status code as = OK(200) and the outcome of every row
+     *
+     * @param authorization
+     * @param httpServletRequest
+     * @return Import Response model with the outcome of every row & HTTP status in a Response Entity
+     *     object
+     * @throws AuthorizationFailedException
+     * @throws InvalidImportException if the body cannot be read or holds more than the allowed rows
+     * @throws IOException
+     */
+    @RequestMapping(
+            method = RequestMethod.POST,
+            path = "/import",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"},
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<UserImportResponse> importUsers(
+            @RequestHeader("authorization") final String authorization,
+            final HttpServletRequest httpServletRequest)
+            throws AuthorizationFailedException, InvalidImportException, IOException {
+
+        // checked before the body is read, so that only an admin can make the server parse rows
+        userBusinessService.authorizeImport(authorization);
+
+        // a root level JSON array is read element by element, just like JSON lines
+        final List<UserEntity> userEntities = new ArrayList<>();
+        try (MappingIterator<SignupUserRequest> rows =
+                     objectMapper.readerFor(SignupUserRequest.class).readValues(httpServletRequest.getInputStream())) {
+            while (rows.hasNextValue()) {
+                if (userEntities.size() == importMaxRows) {
+                    throw new InvalidImportException(
+                            GenericExceptionCode.IMP_003.getCode(), GenericExceptionCode.IMP_003.getDescription());
+                }
+                userEntities.add(toUserEntity(rows.nextValue()));
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidImportException(
+                    GenericExceptionCode.IMP_002.getCode(), GenericExceptionCode.IMP_002.getDescription());
+        }
+
+        List<UserImportOutcome> outcomes = userBusinessService.importUsers(authorization, userEntities);
+
+        UserImportResponse response = new UserImportResponse().results(new ArrayList<>(outcomes.size()));
+        int registered = 0;
+        for (UserImportOutcome outcome : outcomes) {
+            UserImportResult result = new UserImportResult().row(outcome.getRow());
+            if (outcome.isRegistered()) {
+                registered++;
+                result.id(outcome.getUuid()).status("REGISTERED");
+            } else {
+                result.status("REJECTED").code(outcome.getCode()).message(outcome.getMessage());
+            }
+            response.getResults().add(result);
+        }
+        response.registered(registered).rejected(outcomes.size() - registered);
+        return new ResponseEntity<UserImportResponse>(response, HttpStatus.OK);
+    }
+
+    private static UserEntity toUserEntity(final SignupUserRequest signupUserRequest) {
+        UserEntity userEntity = new UserEntity();
+        userEntity.setUuid(UUID.randomUUID().toString());
+        userEntity.setFirstName(signupUserRequest.getFirstName());
+        userEntity.setLastName(signupUserRequest.getLastName());
+        userEntity.setUsername(signupUserRequest.getUserName());
+        userEntity.setEmail(signupUserRequest.getEmailAddress());
+        userEntity.setPassword(signupUserRequest.getPassword());
+        userEntity.setCountry(signupUserRequest.getCountry());
+        userEntity.setAboutMe(signupUserRequest.getAboutMe());
+        userEntity.setDob(signupUserRequest.getDob());
+        userEntity.setContactNumber(signupUserRequest.getContactNumber());
+        userEntity.setRole("nonadmin");
+        return userEntity;
+    }
 }
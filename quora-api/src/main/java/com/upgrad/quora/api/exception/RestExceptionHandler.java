@@ -0,0 +1,138 @@
+package com.upgrad.quora.api.exception;
+
+import com.upgrad.quora.api.model.ErrorResponse;
+import com.upgrad.quora.service.exception.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * This class maps the exceptions thrown by the service layer to an ErrorResponse with the matching
+ * HTTP status code, for all the controllers of the application. Every error is also counted in the
+ * quora.errors metric, tagged with its GenericExceptionCode and the endpoint that raised it.
+ */
+@ControllerAdvice
+public class RestExceptionHandler {
+
+    @Autowired private MeterRegistry meterRegistry;
+
+    @ExceptionHandler(SignUpRestrictedException.class)
+    public ResponseEntity<ErrorResponse> signUpRestrictedException(
+            SignUpRestrictedException exc, WebRequest request) {
+        countError(exc.getCode(), request);
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()),
+                HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(AuthenticationFailedException.class)
+    public ResponseEntity<ErrorResponse> authenticationFailedException(
+            AuthenticationFailedException exc, WebRequest request) {
+        countError(exc.getCode(), request);
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()),
+                HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(SignOutRestrictedException.class)
+    public ResponseEntity<ErrorResponse> signOutRestrictedException(
+            SignOutRestrictedException exc, WebRequest request) {
+        countError(exc.getCode(), request);
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()),
+                HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(AuthorizationFailedException.class)
+    public ResponseEntity<ErrorResponse> authorizationFailedException(
+            AuthorizationFailedException exc, WebRequest request) {
+        countError(exc.getCode(), request);
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()),
+                HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ErrorResponse> userNotFoundException(
+            UserNotFoundException exc, WebRequest request) {
+        countError(exc.getCode(), request);
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()),
+                HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(InvalidQuestionException.class)
+    public ResponseEntity<ErrorResponse> invalidQuestionException(
+            InvalidQuestionException exc, WebRequest request) {
+        countError(exc.getCode(), request);
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()),
+                HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(AnswerNotFoundException.class)
+    public ResponseEntity<ErrorResponse> answerNotFoundException(
+            AnswerNotFoundException exc, WebRequest request) {
+        countError(exc.getCode(), request);
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()),
+                HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> invalidCursorException(
+            InvalidCursorException exc, WebRequest request) {
+        countError(exc.getCode(), request);
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()),
+                HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ErrorResponse> invalidImportException(
+            InvalidImportException exc, WebRequest request) {
+        countError(exc.getCode(), request);
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()),
+                HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> serviceUnavailableException(
+            ServiceUnavailableException exc, WebRequest request) {
+        countError(exc.getCode(), request);
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.set(HttpHeaders.RETRY_AFTER, String.valueOf(exc.getRetryAfterSeconds()));
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()),
+                httpHeaders,
+                HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> tooManyRequestsException(
+            TooManyRequestsException exc, WebRequest request) {
+        countError(exc.getCode(), request);
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.set(HttpHeaders.RETRY_AFTER, String.valueOf(exc.getRetryAfterSeconds()));
+        httpHeaders.set("X-RateLimit-Limit", String.valueOf(exc.getLimit()));
+        httpHeaders.set("X-RateLimit-Remaining", "0");
+        httpHeaders.set("X-RateLimit-Reset", String.valueOf(exc.getRetryAfterSeconds()));
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()),
+                httpHeaders,
+                HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private void countError(final String code, final WebRequest request) {
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        meterRegistry.counter("quora.errors", "code", code, "uri", uri == null ? "UNKNOWN" : uri.toString()).increment();
+    }
+}
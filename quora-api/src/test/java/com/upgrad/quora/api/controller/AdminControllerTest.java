@@ -48,5 +48,23 @@ public class AdminControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
     }
 
+    //This test case passes when you try to read the query statistics but the role of the user corresponding to the JWT token entered is nonadmin.
+    @Test
+    public void queryStatisticsWithnonadminAsRole() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/admin/diagnostics/queries").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
+    }
+
+    //This test case passes when an admin reads the query statistics after a user profile was fetched and the statistics of the userByUuid named query are listed.
+    @Test
+    public void queryStatistics() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/admin/diagnostics/queries").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.query == 'userByUuid')].execution_count").isNotEmpty());
+    }
+
 
 }
@@ -0,0 +1,37 @@
+package com.upgrad.quora.api.controller;
+
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    //This test case passes when, after a request rejected with ATHR-002, the prometheus endpoint exports the endpoint timer, the DAO timers and the error count of ATHR-002.
+    @Test
+    public void prometheusExportsEndpointDaoAndErrorMetrics() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken3"))
+                .andExpect(status().isForbidden());
+
+        mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds")))
+                .andExpect(content().string(containsString("quora_dao_seconds")))
+                .andExpect(content().string(containsString("code=\"ATHR-002\"")));
+    }
+}
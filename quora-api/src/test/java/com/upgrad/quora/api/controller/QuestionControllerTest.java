@@ -12,6 +12,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -152,6 +154,90 @@ public class QuestionControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
     }
 
+    //This test case passes when you get the questions in summary mode and every question carries its number of answers and the date of its latest answer.
+    @Test
+    public void getAllQuestionSummaries() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/all?summary=true&limit=100").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == 'database_question_uuid')].content").value("database_question_content"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == 'database_question_uuid')].answer_count").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == 'database_question_uuid')].latest_answer_date").exists());
+    }
+
+    //This test case passes when you try to get the questions in summary mode but the user corresponding to the JWT token entered is signed out of the application.
+    @Test
+    public void getAllQuestionSummariesWithSignedOutUser() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/all?summary=true").header("authorization", "database_accesstoken3"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
+    }
+
+    //This test case passes when you search the questions with words of the content of an existing question and the question is returned.
+    @Test
+    public void searchQuestionsByContent() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search?query=database question content&limit=100").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == 'database_question_uuid')].content").value("database_question_content"));
+    }
+
+    //This test case passes when you search the questions with the words of an answer and the question of the answer is returned.
+    @Test
+    public void searchQuestionsByAnswer() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search?query=my answer&limit=100").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == 'database_question_uuid')].content").value("database_question_content"));
+    }
+
+    //This test case passes when you search the questions with words that no question or answer contains and no question is returned.
+    @Test
+    public void searchQuestionsWithoutMatch() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search?query=nonexistingword").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$").isEmpty());
+    }
+
+    //This test case passes when you try to search the questions but the user corresponding to the JWT token entered is signed out of the application.
+    @Test
+    public void searchQuestionsWithSignedOutUser() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search?query=database").header("authorization", "database_accesstoken3"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
+    }
+
+    //This test case passes when you try to search the questions with a cursor which was not returned by a previous search.
+    @Test
+    public void searchQuestionsWithInvalidCursor() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search?query=database&cursor=invalid_cursor").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("PAGE-001"));
+    }
+
+    //This test case passes when you get all the questions again with the ETag of the first response as If-None-Match and no body is returned.
+    @Test
+    public void getAllQuestionsNotModified() throws Exception {
+        final String eTag = mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+    }
+
+    //This test case passes when you try to get all the questions with the ETag of a previous response as If-None-Match but the user corresponding to the JWT token entered is signed out of the application.
+    @Test
+    public void getAllQuestionsNotModifiedWithSignedOutUser() throws Exception {
+        final String eTag = mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken3").header("If-None-Match", eTag))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
+    }
+
 
 }
 
@@ -1,16 +1,28 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.service.business.JwtTokenProvider;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -21,10 +33,19 @@ public class UserControllerTest {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Value("${quora.login-rate-limit.username.capacity}")
+    private int usernameSigninCapacity;
+
     //This test case passes when you signup with a username that already exists in the database.
     @Test
     public void signupWithRepeatedUserName() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=database_username&emailAddress=a&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=database_username&emailAddress=a&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
                 .andExpect(status().isConflict())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("SGR-001"));
     }
@@ -32,11 +53,92 @@ public class UserControllerTest {
     //This test case passes when you signup with an email that already exists in the database.
     @Test
     public void signupWithRepeatedEmail() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=non_existing_username&emailAddress=database_email&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=non_existing_username&emailAddress=database_email&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
                 .andExpect(status().isConflict())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("SGR-002"));
     }
 
+    //This test case passes when you signin twice with the same user at the same time and both signins succeed with different access tokens.
+    @Test
+    public void signinTwiceWithinOneSecond() throws Exception {
+        String userName = "twice_" + UUID.randomUUID().toString().substring(0, 8);
+        MvcResult signup = mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=" + userName + "&emailAddress=" + userName + "&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(signup))
+                .andExpect(status().isCreated());
+
+        String authorization = "Basic " + Base64.getEncoder().encodeToString((userName + ":a").getBytes());
+        MvcResult first = mvc.perform(MockMvcRequestBuilders.post("/user/signin").header("authorization", authorization))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult second = mvc.perform(MockMvcRequestBuilders.post("/user/signin").header("authorization", authorization))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String firstToken = mvc.perform(asyncDispatch(first))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("access-token");
+        String secondToken = mvc.perform(asyncDispatch(second))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("access-token");
+        assertNotNull(firstToken);
+        assertNotEquals(firstToken, secondToken);
+    }
+
+    //This test case passes when two access tokens issued to the same user at the same instant are different.
+    @Test
+    public void tokensIssuedAtTheSameTimeDiffer() throws Exception {
+        ZonedDateTime issuedAt = ZonedDateTime.now();
+        assertNotEquals(
+                jwtTokenProvider.generateToken("database_uuid1", 1026, "nonadmin", issuedAt, issuedAt.plusHours(8)),
+                jwtTokenProvider.generateToken("database_uuid1", 1026, "nonadmin", issuedAt, issuedAt.plusHours(8)));
+    }
+
+    //This test case passes when you try to signin with a wrong password more times than allowed for a username: every attempt within the limit fails on the password, and the next one is rejected before the password is checked.
+    @Test
+    public void signinOverUsernameLimit() throws Exception {
+        String authorization = "Basic " + Base64.getEncoder().encodeToString("database_username:wrong_password".getBytes());
+        for (int i = 0; i < usernameSigninCapacity; i++) {
+            MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/user/signin").header("authorization", authorization))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mvc.perform(asyncDispatch(result))
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATH-002"));
+        }
+        mvc.perform(MockMvcRequestBuilders.post("/user/signin").header("authorization", authorization))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(header().string("X-RateLimit-Limit", String.valueOf(usernameSigninCapacity)))
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATH-003"));
+    }
+
+    //This test case passes when you try to import users with the access token of a nonadmin user.
+    @Test
+    public void importUsersWithNonAdmin() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/user/import").contentType(MediaType.APPLICATION_JSON_UTF8).content("[]").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
+    }
+
+    //This test case passes when you import users as JSON lines and every row gets its own outcome: registered, repeated username, missing password.
+    @Test
+    public void importUsersAsJsonLines() throws Exception {
+        String userName = UUID.randomUUID().toString().substring(0, 20);
+        String rows = "{\"first_name\":\"a\",\"last_name\":\"a\",\"user_name\":\"" + userName + "\",\"email_address\":\"" + userName + "@import\",\"password\":\"a\"}\n"
+                + "{\"first_name\":\"a\",\"last_name\":\"a\",\"user_name\":\"database_username\",\"email_address\":\"" + userName + "@other\",\"password\":\"a\"}\n"
+                + "{\"first_name\":\"a\",\"last_name\":\"a\",\"user_name\":\"" + userName + "x\",\"email_address\":\"" + userName + "x@import\"}\n";
+        mvc.perform(MockMvcRequestBuilders.post("/user/import").contentType("application/x-ndjson").content(rows).header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("registered").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("rejected").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[0].status").value("REGISTERED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[1].code").value("SGR-001"))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[2].code").value("IMP-001"));
+    }
 
     //This test case passes when you try to signout but the JWT token entered does not exist in the database.
     @Test
@@ -0,0 +1,72 @@
+package com.upgrad.quora.api.dao;
+
+import com.upgrad.quora.service.business.AnswerBusinessService;
+import com.upgrad.quora.service.projection.AnswerDetails;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+//These test cases count the SQL statements issued to list the answers of a question, to make sure the listing does not
+//issue one more statement per answer (N+1). The answers are inserted in the test transaction and rolled back afterwards.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class AnswerQueryCountTest {
+
+    @Autowired
+    private AnswerBusinessService answerBusinessService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        //Warms up the session of the access token so that only the listing itself is counted
+        answerBusinessService.getAllAnswersOfQuestion("database_question_uuid", "database_accesstoken1");
+    }
+
+    //This test case passes when listing 1 and 20 answers of a question issue the same number of SQL statements.
+    @Test
+    public void getAllAnswersOfQuestionStatementCountDoesNotGrowWithAnswers() throws Exception {
+        final long statementsForOneAnswer = countStatementsOfListing(1);
+        addAnswers(19);
+        final long statementsForTwentyAnswers = countStatementsOfListing(20);
+
+        assertEquals(statementsForOneAnswer, statementsForTwentyAnswers);
+        assertEquals(1, statementsForTwentyAnswers);
+    }
+
+    private long countStatementsOfListing(final int expectedAnswers) throws Exception {
+        statistics.clear();
+        final List<AnswerDetails> answers =
+                answerBusinessService.getAllAnswersOfQuestion("database_question_uuid", "database_accesstoken1");
+        assertEquals(expectedAnswers, answers.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addAnswers(final int count) {
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("insert into answer(uuid, ans, date, user_id, question_id) values (?, 'my_answer', now(), 1026, 1024)",
+                    UUID.randomUUID().toString());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.upgrad.quora.api.dao;
+
+import com.upgrad.quora.service.business.AuthTokenPurger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+//These test cases purge the stale sessions of USER_AUTH in batches of 2 rows. The purge joins the test transaction, so
+//the deleted rows, the sessions of quora_test.sql included, are rolled back afterwards.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"quora.session-purge.batch-size=2", "quora.session-purge.retention-hours=24"})
+@Transactional
+public class AuthTokenPurgerTest {
+
+    private static final String STALE_SESSIONS =
+            "select count(*) from user_auth where logout_at < now() - interval '24 hours' or expires_at < now() - interval '24 hours'";
+
+    @Autowired
+    private AuthTokenPurger authTokenPurger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //This test case passes when the purge deletes, over several batches, every session signed out or expired before the
+    //retention and reports how many, while the active sessions and the recently signed out sessions are kept.
+    @Test
+    public void purgeDeletesStaleSessionsOnly() throws Exception {
+        addSession("now() + interval '8 hours'", "now() - interval '30 days'");
+        addSession("now() - interval '30 days'", null);
+        final String active = addSession("now() + interval '8 hours'", null);
+        final String recentlySignedOut = addSession("now() + interval '8 hours'", "now() - interval '1 hour'");
+        final int stale = jdbcTemplate.queryForObject(STALE_SESSIONS, Integer.class);
+
+        assertEquals(stale, authTokenPurger.purge());
+        assertEquals(0, (int) jdbcTemplate.queryForObject(STALE_SESSIONS, Integer.class));
+        assertEquals(1, countSessions(active));
+        assertEquals(1, countSessions(recentlySignedOut));
+    }
+
+    private String addSession(final String expiresAt, final String logoutAt) {
+        final String accessToken = UUID.randomUUID().toString();
+        jdbcTemplate.update("insert into user_auth (uuid, user_id, access_token, expires_at, login_at, logout_at) values (?, 1029, ?, "
+                + expiresAt + ", now() - interval '30 days', " + logoutAt + ")", UUID.randomUUID().toString(), accessToken);
+        return accessToken;
+    }
+
+    private int countSessions(final String accessToken) {
+        return jdbcTemplate.queryForObject("select count(*) from user_auth where access_token = ?", Integer.class, accessToken);
+    }
+}
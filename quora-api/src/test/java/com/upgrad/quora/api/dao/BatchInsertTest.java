@@ -0,0 +1,79 @@
+package com.upgrad.quora.api.dao;
+
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.QuestionsEntity;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+//These test cases count the insert statements prepared by Hibernate when many entities are created in one transaction,
+//to make sure the inserts are sent in JDBC batches. The questions are created in the test transaction and rolled back afterwards.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.upgrad.quora.api.dao.BatchInsertTest$InsertCounter")
+@Transactional
+public class BatchInsertTest {
+
+    @Autowired
+    private QuestionDao questionDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    //This test case passes when creating N questions in one transaction prepares ceil(N / batch_size) insert statements.
+    @Test
+    public void createQuestionsInsertsInBatches() throws Exception {
+        final int count = 2 * batchSize + 7;
+        InsertCounter.reset();
+
+        for (int i = 0; i < count; i++) {
+            QuestionsEntity questionsEntity = new QuestionsEntity();
+            questionsEntity.setUuid(UUID.randomUUID().toString());
+            questionsEntity.setContent("batched_question_" + i);
+            questionsEntity.setDate(ZonedDateTime.now());
+            questionsEntity.setUserEntity(userDao.getUserReference(1026));
+            questionDao.createQuestion(questionsEntity);
+        }
+        entityManager.flush();
+
+        assertEquals((count + batchSize - 1) / batchSize, InsertCounter.questionInserts.get());
+    }
+
+    //Hibernate prepares a statement once per JDBC batch, so counting the prepared inserts counts the batches.
+    public static class InsertCounter implements StatementInspector {
+
+        private static final AtomicInteger questionInserts = new AtomicInteger();
+
+        static void reset() {
+            questionInserts.set(0);
+        }
+
+        @Override
+        public String inspect(final String sql) {
+            if (sql.toLowerCase().startsWith("insert into question ")) {
+                questionInserts.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.upgrad.quora.api.dao;
+
+import com.upgrad.quora.service.cache.ListingVersions;
+import com.upgrad.quora.service.dao.ListingVersionDao;
+import com.upgrad.quora.service.event.UserDeletedEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+//These test cases change the listings through the ListingVersions of the application and read their versions through
+//another ListingVersions, as another instance would. The versions are only bumped once a change commits, so these test
+//cases do not run in a test transaction and the bumped versions are kept in LISTING_VERSION.
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ListingVersionsTest {
+
+    @Autowired
+    private ListingVersions listingVersions;
+
+    @Autowired
+    private ListingVersionDao listingVersionDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ListingVersions otherInstance;
+
+    @Before
+    public void setUp() {
+        otherInstance = new ListingVersions(10000, 60000);
+        ReflectionTestUtils.setField(otherInstance, "listingVersionDao", listingVersionDao);
+        ReflectionTestUtils.setField(otherInstance, "transactionManager", transactionManager);
+    }
+
+    //This test case passes when a question change is served straight away by the instance it went through, and by the
+    //other instance from its next refresh on.
+    @Test
+    public void questionsVersionIsSharedBetweenInstances() {
+        final String before = otherInstance.getQuestionsVersion().getTag();
+        assertEquals(before, listingVersions.getQuestionsVersion().getTag());
+
+        listingVersions.questionsChanged();
+        assertNotEquals(before, listingVersions.getQuestionsVersion().getTag());
+        assertEquals(before, otherInstance.getQuestionsVersion().getTag());
+
+        otherInstance.refresh();
+        assertEquals(listingVersions.getQuestionsVersion().getTag(), otherInstance.getQuestionsVersion().getTag());
+    }
+
+    //This test case passes when the version of the question listing is only bumped once the transaction of the change
+    //commits.
+    @Test
+    public void versionIsBumpedOnCommit() {
+        final String before = listingVersions.getQuestionsVersion().getTag();
+        new TransactionTemplate(transactionManager).execute(status -> {
+            listingVersions.questionsChanged();
+            assertEquals(before, listingVersions.getQuestionsVersion().getTag());
+            return null;
+        });
+        assertNotEquals(before, listingVersions.getQuestionsVersion().getTag());
+    }
+
+    //This test case passes when a change to the answers of a question changes the version of its answer listing and of
+    //the question listing with the answer summaries on the other instance, but not the answer listing of another question.
+    @Test
+    public void answersVersionIsSharedBetweenInstances() {
+        final String answers = otherInstance.getAnswersVersion("database_question_uuid").getTag();
+        final String otherAnswers = otherInstance.getAnswersVersion("other_question_uuid").getTag();
+        final String summaries = otherInstance.getQuestionSummariesVersion().getTag();
+
+        listingVersions.answersChanged("database_question_uuid");
+        otherInstance.refresh();
+        assertNotEquals(answers, otherInstance.getAnswersVersion("database_question_uuid").getTag());
+        assertNotEquals(summaries, otherInstance.getQuestionSummariesVersion().getTag());
+        assertEquals(otherAnswers, otherInstance.getAnswersVersion("other_question_uuid").getTag());
+    }
+
+    //This test case passes when the deletion of a user changes the version of every listing on the other instance, the
+    //answer listings with a version of their own included.
+    @Test
+    public void userDeletionChangesEveryVersion() {
+        listingVersions.answersChanged("database_question_uuid");
+        otherInstance.refresh();
+        final String questions = otherInstance.getQuestionsVersion().getTag();
+        final String answers = otherInstance.getAnswersVersion("database_question_uuid").getTag();
+        final String otherAnswers = otherInstance.getAnswersVersion("other_question_uuid").getTag();
+
+        listingVersions.onUserDeleted(new UserDeletedEvent("database_uuid1"));
+        otherInstance.refresh();
+        assertNotEquals(questions, otherInstance.getQuestionsVersion().getTag());
+        assertNotEquals(answers, otherInstance.getAnswersVersion("database_question_uuid").getTag());
+        assertNotEquals(otherAnswers, otherInstance.getAnswersVersion("other_question_uuid").getTag());
+    }
+}
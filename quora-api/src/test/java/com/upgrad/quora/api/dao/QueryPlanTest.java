@@ -0,0 +1,87 @@
+package com.upgrad.quora.api.dao;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+//These test cases run EXPLAIN on the SQL behind the hot named queries and check that the plans use the indexes added by the
+//V002__add_lookup_indexes.sql migration. The test tables are tiny, so sequential scans are disabled for the test transaction,
+//otherwise the planner would legitimately prefer them over any index.
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void disableSequentialScans() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    //This test case passes when the userByUuid named query is served by the unique index on USERS.uuid.
+    @Test
+    public void userByUuidUsesIndex() {
+        assertPlanUses("SELECT * FROM users u WHERE u.uuid = 'database_uuid'", "users_uuid_uk");
+    }
+
+    //This test case passes when the userAuthTokenByAccessToken named query is served by the unique index on USER_AUTH.ACCESS_TOKEN.
+    @Test
+    public void userAuthTokenByAccessTokenUsesIndex() {
+        assertPlanUses("SELECT * FROM user_auth ut WHERE ut.access_token = 'database_accesstoken'", "user_auth_access_token_uk");
+    }
+
+    //This test case passes when the QuestionByUuid named query is served by the unique index on QUESTION.uuid.
+    @Test
+    public void questionByUuidUsesIndex() {
+        assertPlanUses("SELECT * FROM question q WHERE q.uuid = 'database_question_uuid'", "question_uuid_uk");
+    }
+
+    //This test case passes when the findQuestionsByUserId named query is served by the indexes on USERS.uuid and QUESTION.user_id.
+    @Test
+    public void findQuestionsByUserIdUsesIndexes() {
+        assertPlanUses("SELECT q.* FROM question q JOIN users u ON q.user_id = u.id WHERE u.uuid = 'database_uuid1'",
+                "users_uuid_uk", "question_user_id_idx");
+    }
+
+    //This test case passes when the findAnswerByUuid named query is served by the unique index on ANSWER.uuid.
+    @Test
+    public void findAnswerByUuidUsesIndex() {
+        assertPlanUses("SELECT * FROM answer a WHERE a.uuid = 'database_answer_uuid'", "answer_uuid_uk");
+    }
+
+    //This test case passes when the findAnswerDetailsByQuuid named query is served by the indexes on QUESTION.uuid and ANSWER(question_id, date).
+    @Test
+    public void findAnswerDetailsByQuuidUsesIndexes() {
+        assertPlanUses("SELECT a.id, a.uuid, a.ans, q.content FROM answer a JOIN question q ON a.question_id = q.id "
+                        + "WHERE q.uuid = 'database_question_uuid' ORDER BY a.id",
+                "question_uuid_uk", "answer_question_id_date_idx");
+    }
+
+    //This test case passes when the questionDetailsPageAfter named query reads the QUESTION(date, id) index from the position
+    //of the cursor on, i.e. the date bound is an index condition and not a filter applied to every newer question.
+    @Test
+    public void questionDetailsPageAfterStartsAtCursor() {
+        assertPlanUses("SELECT q.id, q.uuid, q.content, q.date FROM question q WHERE q.date <= '2018-09-17 19:41:19.593' "
+                        + "AND (q.date < '2018-09-17 19:41:19.593' OR q.id < 1024) ORDER BY q.date DESC, q.id DESC LIMIT 21",
+                "question_date_id_idx", "Index Cond: (date <=");
+    }
+
+    private void assertPlanUses(final String sql, final String... indexNames) {
+        final List<String> planLines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        final String plan = String.join("\n", planLines);
+        for (String indexName : indexNames) {
+            assertTrue("Expected " + indexName + " in plan:\n" + plan, plan.contains(indexName));
+        }
+    }
+}
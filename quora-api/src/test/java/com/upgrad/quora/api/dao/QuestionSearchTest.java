@@ -0,0 +1,62 @@
+package com.upgrad.quora.api.dao;
+
+import com.upgrad.quora.service.business.QuestionBusinessService;
+import com.upgrad.quora.service.business.QuestionPage;
+import com.upgrad.quora.service.projection.QuestionDetails;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+//These test cases search questions added in the test transaction, so they are rolled back afterwards.
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class QuestionSearchTest {
+
+    @Autowired
+    private QuestionBusinessService questionBusinessService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //This test case passes when questions that match the search with the same rank are paged one at a time with the
+    //cursor of the previous page, each of them exactly once, in descending id order, and the last page has no cursor.
+    @Test
+    public void searchPagesThroughMatchesOfEqualRank() throws Exception {
+        final String first = addQuestion("zebracorn question content");
+        final String second = addQuestion("zebracorn question content");
+        final String third = addQuestion("zebracorn question content");
+
+        final List<String> found = new ArrayList<String>();
+        String cursor = null;
+        do {
+            final QuestionPage page = questionBusinessService.searchQuestions("database_accesstoken1", "zebracorn", cursor, 1);
+            for (QuestionDetails question : page.getQuestions()) {
+                found.add(question.getUuid());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null && found.size() <= 3);
+
+        assertEquals(Arrays.asList(third, second, first), found);
+        assertNull(cursor);
+    }
+
+    private String addQuestion(final String content) {
+        final String uuid = UUID.randomUUID().toString();
+        jdbcTemplate.update("insert into question (id, uuid, content, date, user_id) values (nextval('question_id_seq'), ?, ?, now(), 1026)",
+                uuid, content);
+        return uuid;
+    }
+}
@@ -0,0 +1,76 @@
+package com.upgrad.quora.api.dao;
+
+import com.upgrad.quora.service.business.JwtTokenProvider;
+import com.upgrad.quora.service.cache.RevokedTokenRegistry;
+import com.upgrad.quora.service.dao.UserDao;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+//These test cases load a fresh RevokedTokenRegistry, as after a restart or on another instance, from the revocations
+//stored in the database. The registry reads within the test transaction, so the added rows are rolled back afterwards.
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class RevokedTokenRegistryTest {
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //This test case passes when a token signed out in USER_AUTH is rejected by a registry that did not see the signout,
+    //while another token of the same user is still accepted.
+    @Test
+    public void signedOutTokenIsRevokedAfterRestart() throws Exception {
+        final String signedOut = addSession("now()");
+        final String active = addSession(null);
+
+        final RevokedTokenRegistry registry = newRegistry();
+        assertTrue(registry.isRevoked(signedOut, jwtTokenProvider.verifyToken(signedOut)));
+        assertFalse(registry.isRevoked(active, jwtTokenProvider.verifyToken(active)));
+    }
+
+    //This test case passes when the tokens of a deleted user are rejected by a registry that did not see the deletion.
+    @Test
+    public void deletedUserTokenIsRevokedAfterRestart() throws Exception {
+        final String accessToken = generateToken(ZonedDateTime.now().minusMinutes(1));
+        userDao.createUserRevocation("database_uuid1", ZonedDateTime.now(), ZonedDateTime.now().plusHours(8));
+
+        final RevokedTokenRegistry registry = newRegistry();
+        assertTrue(registry.isRevoked(accessToken, jwtTokenProvider.verifyToken(accessToken)));
+    }
+
+    private RevokedTokenRegistry newRegistry() {
+        final RevokedTokenRegistry registry = new RevokedTokenRegistry(60000);
+        ReflectionTestUtils.setField(registry, "userDao", userDao);
+        registry.refresh();
+        return registry;
+    }
+
+    private String addSession(final String logoutAt) {
+        final String accessToken = generateToken(ZonedDateTime.now());
+        jdbcTemplate.update("insert into user_auth (uuid, user_id, access_token, expires_at, login_at, logout_at) values (?, 1026, ?, "
+                + "now() + interval '8 hours', now(), " + logoutAt + ")", UUID.randomUUID().toString(), accessToken);
+        return accessToken;
+    }
+
+    private String generateToken(final ZonedDateTime issuedAt) {
+        return jwtTokenProvider.generateToken("database_uuid1", 1026, "nonadmin", issuedAt, issuedAt.plusHours(8));
+    }
+}
@@ -0,0 +1,91 @@
+package com.upgrad.quora.api.dao;
+
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.QuestionsEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+//These test cases check that the users and questions looked up by uuid are served by the second-level and query caches, and
+//that the cached questions are evicted when their user is deleted. The deletion is rolled back afterwards.
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private QuestionDao questionDao;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    //This test case passes when the second lookup of a user by uuid is answered from the caches without any SQL statement.
+    @Test
+    public void getUserbyUuidIsCached() throws Exception {
+        userDao.getUserbyUuid("database_uuid1");
+        statistics.clear();
+
+        final UserEntity userEntity = userDao.getUserbyUuid("database_uuid1");
+
+        assertEquals("database_username1", userEntity.getUsername());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    //This test case passes when the second lookup of a question by uuid is answered from the caches without any SQL statement.
+    @Test
+    public void getQuestionByUuidIsCached() throws Exception {
+        questionDao.getQuestionByUuid("database_question_uuid");
+        statistics.clear();
+
+        final QuestionsEntity questionsEntity = questionDao.getQuestionByUuid("database_question_uuid");
+
+        assertEquals("database_question_content", questionsEntity.getContent());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    //This test case passes when a cached question is no longer found once its user is deleted, the database deleting the question.
+    @Test
+    public void deleteUserEvictsCachedQuestions() throws Exception {
+        questionDao.getQuestionByUuid("database_question_uuid");
+
+        transactionTemplate.execute(status -> {
+            userDao.deleteUser(userDao.getUserbyUuid("database_uuid1"));
+            entityManager.flush();
+            assertNull(questionDao.getQuestionByUuid("database_question_uuid"));
+            status.setRollbackOnly();
+            return null;
+        });
+    }
+}
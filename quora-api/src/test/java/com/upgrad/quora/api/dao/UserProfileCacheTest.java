@@ -0,0 +1,71 @@
+package com.upgrad.quora.api.dao;
+
+import com.upgrad.quora.service.cache.UserProfileCache;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+
+//These test cases run a UserProfileCache in front of a UserDao that serves a single user from memory, so that a profile
+//update and its invalidation can be made to happen while the cache is loading the profile.
+public class UserProfileCacheTest {
+
+    private static final String USER_UUID = "database_uuid1";
+
+    private final UserProfileCache userProfileCache = new UserProfileCache(10, 300);
+
+    private String firstName = "before";
+
+    private Runnable duringLoad = () -> {
+    };
+
+    private int loads;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(userProfileCache, "userDao", new UserDao() {
+            @Override
+            public UserEntity getUserbyUuid(final String userUuid) {
+                loads++;
+                final UserEntity userEntity = new UserEntity();
+                userEntity.setUuid(userUuid);
+                userEntity.setFirstName(firstName);
+                duringLoad.run();
+                return userEntity;
+            }
+        });
+    }
+
+    //This test case passes when a cached profile is served without loading it again, and reloaded once invalidated.
+    @Test
+    public void invalidatedProfileIsReloaded() {
+        assertEquals("before", userProfileCache.getProfile(USER_UUID).getFirstName());
+        assertEquals("before", userProfileCache.getProfile(USER_UUID).getFirstName());
+        assertEquals(1, loads);
+
+        firstName = "after";
+        userProfileCache.invalidate(USER_UUID);
+        assertEquals("after", userProfileCache.getProfile(USER_UUID).getFirstName());
+        assertEquals(2, loads);
+    }
+
+    //This test case passes when a profile read before an update, whose invalidation lands while the profile is still
+    //being loaded, is not put back in the cache, so the next lookup sees the update.
+    @Test
+    public void loadRacingAnInvalidationIsNotCached() {
+        duringLoad = () -> {
+            firstName = "after";
+            userProfileCache.invalidate(USER_UUID);
+        };
+        assertEquals("before", userProfileCache.getProfile(USER_UUID).getFirstName());
+
+        duringLoad = () -> {
+        };
+        assertEquals("after", userProfileCache.getProfile(USER_UUID).getFirstName());
+        assertEquals("after", userProfileCache.getProfile(USER_UUID).getFirstName());
+        assertEquals(2, loads);
+    }
+}
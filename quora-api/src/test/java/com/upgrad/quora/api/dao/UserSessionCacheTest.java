@@ -0,0 +1,123 @@
+package com.upgrad.quora.api.dao;
+
+import com.upgrad.quora.service.business.JwtSigningKeys;
+import com.upgrad.quora.service.business.JwtTokenProvider;
+import com.upgrad.quora.service.cache.RevokedTokenRegistry;
+import com.upgrad.quora.service.cache.UserSession;
+import com.upgrad.quora.service.cache.UserSessionCache;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.UserAuthTokenEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZonedDateTime;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+//These test cases run a UserSessionCache in front of a UserDao that serves a single session from memory, so that a signout
+//and its invalidation can be made to happen while the cache is loading the session, and of a RevokedTokenRegistry that
+//is not backed by the database.
+public class UserSessionCacheTest {
+
+    private static final String LEGACY_ACCESS_TOKEN = "legacy_access_token";
+
+    private static final String SECRET = "user-session-cache-test-secret-long-enough-for-a-hmac512-signing-key";
+
+    private final UserSessionCache userSessionCache = new UserSessionCache(10, 300);
+
+    private final JwtTokenProvider jwtTokenProvider =
+            new JwtTokenProvider(new JwtSigningKeys("k1", Collections.singletonMap("k1", SECRET)));
+
+    private final RevokedTokenRegistry revokedTokenRegistry = new RevokedTokenRegistry(60000);
+
+    private ZonedDateTime logoutAt;
+
+    private Runnable duringLoad = () -> {
+    };
+
+    private int loads;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(userSessionCache, "jwtTokenProvider", jwtTokenProvider);
+        ReflectionTestUtils.setField(userSessionCache, "revokedTokenRegistry", revokedTokenRegistry);
+        ReflectionTestUtils.setField(userSessionCache, "userDao", new UserDao() {
+            @Override
+            public UserAuthTokenEntity getAuthToken(final String accessToken) {
+                if (!LEGACY_ACCESS_TOKEN.equals(accessToken)) {
+                    return null;
+                }
+                loads++;
+                final UserEntity userEntity = new UserEntity();
+                userEntity.setId(1026);
+                userEntity.setUuid("database_uuid1");
+                userEntity.setRole("nonadmin");
+                final UserAuthTokenEntity userAuthTokenEntity = new UserAuthTokenEntity();
+                userAuthTokenEntity.setUsers(userEntity);
+                userAuthTokenEntity.setAccess_token(accessToken);
+                userAuthTokenEntity.setExpiresAt(ZonedDateTime.now().plusHours(8));
+                userAuthTokenEntity.setLogoutAt(logoutAt);
+                duringLoad.run();
+                return userAuthTokenEntity;
+            }
+        });
+    }
+
+    //This test case passes when a session read before a signout, whose invalidation lands while the session is still
+    //being loaded, is not put back in the cache, so the next lookup sees the signout.
+    @Test
+    public void loadRacingAnInvalidationIsNotCached() {
+        duringLoad = () -> {
+            logoutAt = ZonedDateTime.now();
+            userSessionCache.invalidate(LEGACY_ACCESS_TOKEN);
+        };
+        assertNull(userSessionCache.getSession(LEGACY_ACCESS_TOKEN).getLogoutAt());
+
+        duringLoad = () -> {
+        };
+        assertNotNull(userSessionCache.getSession(LEGACY_ACCESS_TOKEN).getLogoutAt());
+        assertNotNull(userSessionCache.getSession(LEGACY_ACCESS_TOKEN).getLogoutAt());
+        assertEquals(2, loads);
+    }
+
+    //This test case passes when a cached session is rejected as soon as its access token is revoked, as when
+    //RevokedTokenRegistry.refresh loads the signout of another instance.
+    @Test
+    public void revokedTokenIsRejectedFromCache() {
+        final String accessToken = generateToken();
+        assertNotNull(userSessionCache.getSession(accessToken));
+
+        revokedTokenRegistry.revoke(accessToken, ZonedDateTime.now().plusHours(8));
+        assertNull(userSessionCache.getSession(accessToken));
+    }
+
+    //This test case passes when the revocation of a token by a signout whose transaction rolls back is not applied.
+    @Test
+    public void rolledBackRevocationIsNotApplied() {
+        final String accessToken = generateToken();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            revokedTokenRegistry.revoke(accessToken, ZonedDateTime.now().plusHours(8));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertFalse(revokedTokenRegistry.isRevoked(accessToken, jwtTokenProvider.verifyToken(accessToken)));
+        assertNotNull(userSessionCache.getSession(accessToken));
+    }
+
+    private String generateToken() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        return jwtTokenProvider.generateToken("database_uuid1", 1026, "nonadmin", now, now.plusHours(8));
+    }
+}
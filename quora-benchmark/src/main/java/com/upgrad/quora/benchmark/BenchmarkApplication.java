@@ -0,0 +1,30 @@
+package com.upgrad.quora.benchmark;
+
+import com.upgrad.quora.service.ServiceConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Spring Boot configuration of the benchmarks that need the persistence layer. It starts the
+ * quora-service beans without a web server, on an in-memory H2 database whose schema is generated
+ * from the entities (see benchmark.yaml)
+ */
+@SpringBootApplication
+@Import(ServiceConfiguration.class)
+public class BenchmarkApplication {
+
+    /**
+     * This method starts a new application context. The caller is responsible for closing it
+     *
+     * @return started application context
+     */
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.config.name=benchmark")
+                .run();
+    }
+}
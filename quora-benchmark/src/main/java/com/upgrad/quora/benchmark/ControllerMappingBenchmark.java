@@ -0,0 +1,134 @@
+package com.upgrad.quora.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.api.controller.AnswerController;
+import com.upgrad.quora.api.controller.QuestionController;
+import com.upgrad.quora.api.model.AnswerDetailsResponse;
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+import com.upgrad.quora.api.model.QuestionResponse;
+import com.upgrad.quora.service.business.AnswerBusinessService;
+import com.upgrad.quora.service.business.QuestionBusinessService;
+import com.upgrad.quora.service.business.QuestionPage;
+import com.upgrad.quora.service.cache.ListingVersion;
+import com.upgrad.quora.service.projection.AnswerDetails;
+import com.upgrad.quora.service.projection.QuestionDetails;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.lang.reflect.Proxy;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the loops of the listing endpoints which map the rows returned by the business
+ * services to the response models. The controllers are wired to business services returning
+ * prebuilt rows, so only the controller code is measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerMappingBenchmark {
+
+    private static final String ACCESS_TOKEN = "benchmark-access-token";
+
+    private static final ListingVersion LISTING_VERSION = new ListingVersion("benchmark-1", System.currentTimeMillis());
+
+    /** A request without If-None-Match and If-Modified-Since, so the listings are always mapped */
+    private static final WebRequest WEB_REQUEST =
+            (WebRequest)
+                    Proxy.newProxyInstance(
+                            WebRequest.class.getClassLoader(),
+                            new Class<?>[] {WebRequest.class},
+                            (proxy, method, args) -> method.getReturnType() == boolean.class ? false : null);
+
+    @Param({"20", "100", "1000"})
+    private int rows;
+
+    private AnnotationConfigApplicationContext context;
+
+    private QuestionController questionController;
+
+    private AnswerController answerController;
+
+    @Setup
+    public void setUp() {
+        final List<QuestionDetails> questions = new ArrayList<>(rows);
+        final List<AnswerDetails> answers = new ArrayList<>(rows);
+        final ZonedDateTime now = ZonedDateTime.now();
+        for (int i = 0; i < rows; i++) {
+            questions.add(
+                    new QuestionDetails(i, UUID.randomUUID().toString(), "Question content " + i, now.minusMinutes(i)));
+            answers.add(new AnswerDetails(i, UUID.randomUUID().toString(), "Answer content " + i, "Question content"));
+        }
+        final QuestionPage questionPage = new QuestionPage(questions, null);
+
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("objectMapper", new ObjectMapper());
+        context.getBeanFactory()
+                .registerSingleton(
+                        "questionBusinessService",
+                        new QuestionBusinessService() {
+                            @Override
+                            public ListingVersion getQuestionsVersion(String accessToken) {
+                                return LISTING_VERSION;
+                            }
+
+                            @Override
+                            public QuestionPage getQuestionPage(String accessToken, String cursor, Integer limit) {
+                                return questionPage;
+                            }
+
+                            @Override
+                            public List<QuestionDetails> getQuestionsForUserId(String userUuid, String accessToken) {
+                                return questions;
+                            }
+                        });
+        context.getBeanFactory()
+                .registerSingleton(
+                        "answerBusinessService",
+                        new AnswerBusinessService() {
+                            @Override
+                            public ListingVersion getAnswersVersion(String questionUuid, String token) {
+                                return LISTING_VERSION;
+                            }
+
+                            @Override
+                            public List<AnswerDetails> getAllAnswersOfQuestion(String questionUuid, String token) {
+                                return answers;
+                            }
+                        });
+        context.register(QuestionController.class, AnswerController.class);
+        context.refresh();
+        questionController = context.getBean(QuestionController.class);
+        answerController = context.getBean(AnswerController.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<QuestionDetailsResponse>> getAllQuestions() throws Exception {
+        return questionController.getAllQuestions(ACCESS_TOKEN, null, rows, WEB_REQUEST);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<QuestionResponse>> getQuestionsByUserId() throws Exception {
+        return questionController.getQuestionsByUserId("benchmark-user", ACCESS_TOKEN);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<AnswerDetailsResponse>> getAllAnswersOfQuestion() throws Exception {
+        return answerController.getAllAnswersOfQuestion("benchmark-question", ACCESS_TOKEN, WEB_REQUEST);
+    }
+}
@@ -0,0 +1,157 @@
+package com.upgrad.quora.benchmark;
+
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.AnswerEntity;
+import com.upgrad.quora.service.entity.QuestionsEntity;
+import com.upgrad.quora.service.entity.UserAuthTokenEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.projection.AnswerDetails;
+import com.upgrad.quora.service.projection.QuestionDetails;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the DAO lookups behind the authorization of every request and the listing
+ * endpoints, against an in-memory H2 database seeded with USERS users, each with a signed in
+ * session and QUESTIONS_PER_USER questions of ANSWERS_PER_QUESTION answers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaoLookupBenchmark {
+
+    private static final int USERS = 100;
+
+    private static final int QUESTIONS_PER_USER = 10;
+
+    private static final int ANSWERS_PER_QUESTION = 5;
+
+    private static final int PAGE_SIZE = 20;
+
+    private ConfigurableApplicationContext context;
+
+    private UserDao userDao;
+
+    private QuestionDao questionDao;
+
+    private AnswerDao answerDao;
+
+    private final String[] userUuids = new String[USERS];
+
+    private final String[] accessTokens = new String[USERS];
+
+    private final String[] questionUuids = new String[USERS * QUESTIONS_PER_USER];
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        userDao = context.getBean(UserDao.class);
+        questionDao = context.getBean(QuestionDao.class);
+        answerDao = context.getBean(AnswerDao.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .execute(
+                        status -> {
+                            seed();
+                            return null;
+                        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        int question = 0;
+        for (int u = 0; u < USERS; u++) {
+            UserEntity userEntity = new UserEntity();
+            userEntity.setUuid(UUID.randomUUID().toString());
+            userEntity.setFirstName("first" + u);
+            userEntity.setLastName("last" + u);
+            userEntity.setUsername("user" + u);
+            userEntity.setEmail("user" + u + "@quora.io");
+            userEntity.setPassword("password");
+            userEntity.setSalt("salt");
+            userEntity.setRole("nonadmin");
+            userDao.createUser(userEntity);
+            userUuids[u] = userEntity.getUuid();
+
+            UserAuthTokenEntity userAuthTokenEntity = new UserAuthTokenEntity();
+            userAuthTokenEntity.setUuid(UUID.randomUUID().toString());
+            userAuthTokenEntity.setUsers(userEntity);
+            userAuthTokenEntity.setAccess_token("benchmark-access-token-" + u);
+            userAuthTokenEntity.setLoginAt(now);
+            userAuthTokenEntity.setExpiresAt(now.plusHours(8));
+            userDao.createAuthToken(userAuthTokenEntity);
+            accessTokens[u] = userAuthTokenEntity.getAccess_token();
+
+            for (int q = 0; q < QUESTIONS_PER_USER; q++) {
+                QuestionsEntity questionsEntity = new QuestionsEntity();
+                questionsEntity.setUuid(UUID.randomUUID().toString());
+                questionsEntity.setContent("Question " + q + " of user " + u);
+                questionsEntity.setDate(now.minusMinutes(question));
+                questionsEntity.setUserEntity(userEntity);
+                questionDao.createQuestion(questionsEntity);
+                questionUuids[question++] = questionsEntity.getUuid();
+
+                for (int a = 0; a < ANSWERS_PER_QUESTION; a++) {
+                    AnswerEntity answerEntity = new AnswerEntity();
+                    answerEntity.setUuid(UUID.randomUUID().toString());
+                    answerEntity.setAns("Answer " + a);
+                    answerEntity.setDate(now);
+                    answerEntity.setUsers(userEntity);
+                    answerEntity.setQuestionsEntity(questionsEntity);
+                    answerDao.createAnswer(answerEntity);
+                }
+            }
+        }
+    }
+
+    private static String any(final String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    @Benchmark
+    public UserAuthTokenEntity getAuthToken() {
+        return userDao.getAuthToken(any(accessTokens));
+    }
+
+    @Benchmark
+    public UserEntity getUserByUuid() {
+        return userDao.getUserbyUuid(any(userUuids));
+    }
+
+    @Benchmark
+    public QuestionsEntity getQuestionByUuid() {
+        return questionDao.getQuestionByUuid(any(questionUuids));
+    }
+
+    @Benchmark
+    public List<QuestionDetails> getQuestionsFirstPage() {
+        return questionDao.getQuestionsPage(null, null, PAGE_SIZE + 1);
+    }
+
+    @Benchmark
+    public List<QuestionDetails> getQuestionsForUserId() {
+        return questionDao.getQuestionsForUserId(any(userUuids));
+    }
+
+    @Benchmark
+    public List<AnswerDetails> getAnswerDetailsByQuestionUuid() {
+        return answerDao.getAnswerDetailsByQUuid(any(questionUuids));
+    }
+}
@@ -0,0 +1,54 @@
+package com.upgrad.quora.benchmark;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.upgrad.quora.service.business.JwtSigningKeys;
+import com.upgrad.quora.service.business.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the access token generated on every signin and verified on every authorized request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    private String userUuid;
+
+    private ZonedDateTime issuedAt;
+
+    private ZonedDateTime expiresAt;
+
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider =
+                new JwtTokenProvider(
+                        new JwtSigningKeys("k1", Collections.singletonMap("k1", "quora-benchmark-secret-used-only-to-sign-the-tokens-of-the-benchmarks")));
+        userUuid = UUID.randomUUID().toString();
+        issuedAt = ZonedDateTime.now();
+        expiresAt = issuedAt.plusHours(8);
+        accessToken = jwtTokenProvider.generateToken(userUuid, 1, "nonadmin", issuedAt, expiresAt);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(userUuid, 1, "nonadmin", issuedAt, expiresAt);
+    }
+
+    @Benchmark
+    public DecodedJWT verifyToken() {
+        return jwtTokenProvider.verifyToken(accessToken);
+    }
+}
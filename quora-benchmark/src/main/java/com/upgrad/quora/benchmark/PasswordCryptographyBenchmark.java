@@ -0,0 +1,44 @@
+package com.upgrad.quora.benchmark;
+
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the password hashing done on every signup (encrypt with a new salt) and every
+ * signin (matches against the stored password), for several PBKDF2 iteration counts
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordCryptographyBenchmark {
+
+    private static final String PASSWORD = "quora@123";
+
+    @Param({"1000", "10000", "100000"})
+    private int iterations;
+
+    private PasswordCryptographyProvider passwordCryptographyProvider;
+
+    private String[] storedPassword;
+
+    @Setup
+    public void setUp() {
+        passwordCryptographyProvider = new PasswordCryptographyProvider(iterations, 512);
+        storedPassword = passwordCryptographyProvider.encrypt(PASSWORD);
+    }
+
+    @Benchmark
+    public String[] encryptWithNewSalt() {
+        return passwordCryptographyProvider.encrypt(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordCryptographyProvider.matches(PASSWORD, storedPassword[1], storedPassword[0]);
+    }
+}
@@ -0,0 +1,63 @@
+package com.upgrad.quora.benchmark;
+
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+
+import java.util.Arrays;
+
+/**
+ * Command line tool picking the PBKDF2 iterations (quora.password-hash.iterations) for which hashing
+ * one password takes the given target time on the machine it runs on. Run it on the production
+ * hardware:
+ *
+ * <pre>
+ * java -cp quora-benchmark/target/benchmarks.jar com.upgrad.quora.benchmark.PasswordHashCalibration [target ms] [key length]
+ * </pre>
+ */
+public class PasswordHashCalibration {
+
+    private static final String PASSWORD = "quora@123";
+
+    private static final int DEFAULT_TARGET_MILLIS = 100;
+
+    private static final int DEFAULT_KEY_LENGTH = 512;
+
+    private static final int MIN_ITERATIONS = 1000;
+
+    private static final int SAMPLES = 7;
+
+    public static void main(final String[] args) {
+        final int targetMillis = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TARGET_MILLIS;
+        final int keyLength = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_KEY_LENGTH;
+
+        // warm up the JIT with a cheap cost, then extrapolate from a measurement and correct it twice
+        medianMillis(MIN_ITERATIONS, keyLength, 200);
+        int iterations = 10 * MIN_ITERATIONS;
+        for (int round = 0; round < 3; round++) {
+            final double millis = medianMillis(iterations, keyLength, SAMPLES);
+            iterations = roundIterations(iterations * targetMillis / millis);
+        }
+        final double millis = medianMillis(iterations, keyLength, SAMPLES);
+
+        System.out.println(
+                String.format(
+                        "%d iterations take %.1f ms per password (target %d ms, key length %d bits)",
+                        iterations, millis, targetMillis, keyLength));
+        System.out.println("quora.password-hash.iterations: " + iterations);
+    }
+
+    private static int roundIterations(final double iterations) {
+        return (int) Math.max(MIN_ITERATIONS, Math.round(iterations / 1000) * 1000);
+    }
+
+    private static double medianMillis(final int iterations, final int keyLength, final int samples) {
+        final PasswordCryptographyProvider provider = new PasswordCryptographyProvider(iterations, keyLength);
+        final double[] millis = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            final long start = System.nanoTime();
+            provider.encrypt(PASSWORD);
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis[samples / 2];
+    }
+}
@@ -0,0 +1,67 @@
+package com.upgrad.quora.benchmark;
+
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the PasswordCryptographyProvider bean, as configured for the application, hashing
+ * and verifying passwords from one and from several threads. The provider reuses a per-thread
+ * SecretKeyFactory and a shared SecureRandom, so the latency per operation should not grow with the
+ * number of threads. Run with "-prof gc" to see the allocations per operation (gc.alloc.rate.norm)
+ * as well as the latency
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordHashingReuseBenchmark {
+
+    private static final String PASSWORD = "quora@123";
+
+    private static final int THREADS = 4;
+
+    private ConfigurableApplicationContext context;
+
+    private PasswordCryptographyProvider passwordCryptographyProvider;
+
+    private String[] storedPassword;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        passwordCryptographyProvider = context.getBean(PasswordCryptographyProvider.class);
+        storedPassword = passwordCryptographyProvider.encrypt(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String[] encrypt() {
+        return passwordCryptographyProvider.encrypt(PASSWORD);
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public String[] encryptConcurrently() {
+        return passwordCryptographyProvider.encrypt(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordCryptographyProvider.matches(PASSWORD, storedPassword[1], storedPassword[0]);
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public boolean matchesConcurrently() {
+        return passwordCryptographyProvider.matches(PASSWORD, storedPassword[1], storedPassword[0]);
+    }
+}
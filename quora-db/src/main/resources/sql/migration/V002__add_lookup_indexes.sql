@@ -0,0 +1,19 @@
+--Version 2: indexes backing the named queries that look rows up by uuid or access token, and the foreign keys they join on.
+--Every statement is idempotent so that the migration can be re-applied to an existing database.
+
+--USERS.uuid is used by the userByUuid named query
+CREATE UNIQUE INDEX IF NOT EXISTS USERS_UUID_UK ON USERS(uuid);
+
+--USER_AUTH.ACCESS_TOKEN is used by the userAuthTokenByAccessToken named query on every authorized request
+CREATE UNIQUE INDEX IF NOT EXISTS USER_AUTH_UUID_UK ON USER_AUTH(uuid);
+CREATE UNIQUE INDEX IF NOT EXISTS USER_AUTH_ACCESS_TOKEN_UK ON USER_AUTH(ACCESS_TOKEN);
+CREATE INDEX IF NOT EXISTS USER_AUTH_USER_ID_IDX ON USER_AUTH(USER_ID);
+
+--QUESTION.uuid is used by the QuestionByUuid named query, QUESTION.user_id by findQuestionsByUserId
+CREATE UNIQUE INDEX IF NOT EXISTS QUESTION_UUID_UK ON QUESTION(uuid);
+CREATE INDEX IF NOT EXISTS QUESTION_USER_ID_IDX ON QUESTION(user_id);
+
+--ANSWER.uuid is used by the findAnswerByUuid named query, ANSWER.question_id by findAnswersByQuuid
+CREATE UNIQUE INDEX IF NOT EXISTS ANSWER_UUID_UK ON ANSWER(uuid);
+CREATE INDEX IF NOT EXISTS ANSWER_QUESTION_ID_IDX ON ANSWER(question_id);
+CREATE INDEX IF NOT EXISTS ANSWER_USER_ID_IDX ON ANSWER(user_id);
@@ -0,0 +1,2 @@
+--Version 3: index backing the keyset pagination of the question listing, which is ordered by (date, id) descending.
+CREATE INDEX IF NOT EXISTS QUESTION_DATE_ID_IDX ON QUESTION(date DESC, id DESC);
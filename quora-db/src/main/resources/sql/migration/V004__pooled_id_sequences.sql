@@ -0,0 +1,8 @@
+--Version 4: the entities take their ids from the sequences behind the SERIAL columns in blocks of 50 (pooled optimizer,
+--allocationSize = 50), so that Hibernate knows the ids before the inserts and can send them in JDBC batches. The
+--increment must stay equal to the allocationSize of the entities. Inserts that leave the id out keep drawing from the
+--same sequences through the column defaults.
+ALTER SEQUENCE USERS_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE USER_AUTH_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE QUESTION_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE ANSWER_ID_SEQ INCREMENT BY 50;
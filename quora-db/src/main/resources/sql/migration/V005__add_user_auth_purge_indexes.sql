@@ -0,0 +1,4 @@
+--Version 5: indexes backing the purge of the expired and signed out sessions (UserDao.deleteStaleAuthTokens), so that
+--every batch of the purge finds its rows without scanning USER_AUTH.
+CREATE INDEX IF NOT EXISTS USER_AUTH_EXPIRES_AT_IDX ON USER_AUTH(EXPIRES_AT);
+CREATE INDEX IF NOT EXISTS USER_AUTH_LOGOUT_AT_IDX ON USER_AUTH(LOGOUT_AT) WHERE LOGOUT_AT IS NOT NULL;
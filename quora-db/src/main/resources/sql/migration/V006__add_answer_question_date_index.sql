@@ -0,0 +1,5 @@
+--Version 6: index backing the answer summaries of the question listing (AnswerDao.getAnswerSummaries), which count
+--the answers and find the latest answer of every question of a page from the index alone. It also serves the lookups
+--by question_id, so it replaces ANSWER_QUESTION_ID_IDX.
+CREATE INDEX IF NOT EXISTS ANSWER_QUESTION_ID_DATE_IDX ON ANSWER(question_id, date);
+DROP INDEX IF EXISTS ANSWER_QUESTION_ID_IDX;
@@ -0,0 +1,13 @@
+--Version 7: full-text search over the questions and their answers (QuestionDao.searchQuestions). The documents are
+--stored as tsvector columns kept up to date by triggers, so that ranking a match does not parse the text again, and
+--are indexed with GIN.
+ALTER TABLE QUESTION ADD COLUMN IF NOT EXISTS CONTENT_TSV TSVECTOR;
+ALTER TABLE ANSWER ADD COLUMN IF NOT EXISTS ANS_TSV TSVECTOR;
+DROP TRIGGER IF EXISTS QUESTION_CONTENT_TSV_TRG ON QUESTION;
+CREATE TRIGGER QUESTION_CONTENT_TSV_TRG BEFORE INSERT OR UPDATE OF CONTENT ON QUESTION FOR EACH ROW EXECUTE PROCEDURE tsvector_update_trigger(CONTENT_TSV, 'pg_catalog.english', CONTENT);
+DROP TRIGGER IF EXISTS ANSWER_ANS_TSV_TRG ON ANSWER;
+CREATE TRIGGER ANSWER_ANS_TSV_TRG BEFORE INSERT OR UPDATE OF ANS ON ANSWER FOR EACH ROW EXECUTE PROCEDURE tsvector_update_trigger(ANS_TSV, 'pg_catalog.english', ANS);
+UPDATE QUESTION SET CONTENT_TSV = to_tsvector('pg_catalog.english', CONTENT) WHERE CONTENT_TSV IS NULL;
+UPDATE ANSWER SET ANS_TSV = to_tsvector('pg_catalog.english', ANS) WHERE ANS_TSV IS NULL;
+CREATE INDEX IF NOT EXISTS QUESTION_CONTENT_TSV_IDX ON QUESTION USING GIN(CONTENT_TSV);
+CREATE INDEX IF NOT EXISTS ANSWER_ANS_TSV_IDX ON ANSWER USING GIN(ANS_TSV);
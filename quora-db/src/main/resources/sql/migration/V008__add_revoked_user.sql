@@ -0,0 +1,5 @@
+--Version 8: users deleted while some of their access tokens could still be valid (RevokedTokenRegistry.revokeUser).
+--Their USER_AUTH rows are deleted with them, so the revocation is kept here until those tokens have expired, for the
+--registries of the other instances and of the next start to load it.
+CREATE TABLE IF NOT EXISTS REVOKED_USER(USER_UUID VARCHAR(200) PRIMARY KEY, REVOKED_AT TIMESTAMP NOT NULL, EXPIRES_AT TIMESTAMP NOT NULL);
+CREATE INDEX IF NOT EXISTS REVOKED_USER_REVOKED_AT_IDX ON REVOKED_USER(REVOKED_AT);
@@ -0,0 +1,8 @@
+--Version 9: versions of the question and answer listings (ListingVersions), used as their ETag and Last-Modified. A change
+--bumps the version once it is committed, and every instance loads the versions changed since its last refresh from here,
+--so all the instances hand out the same version of a listing. The answer listing of a question without its own, newer,
+--'answers/<question uuid>' row has the version of the 'answers' row.
+CREATE SEQUENCE IF NOT EXISTS LISTING_VERSION_SEQ;
+CREATE TABLE IF NOT EXISTS LISTING_VERSION(NAME VARCHAR(300) PRIMARY KEY, VERSION BIGINT NOT NULL, CHANGED_AT TIMESTAMP NOT NULL);
+CREATE INDEX IF NOT EXISTS LISTING_VERSION_CHANGED_AT_IDX ON LISTING_VERSION(CHANGED_AT);
+INSERT INTO LISTING_VERSION(NAME, VERSION, CHANGED_AT) VALUES ('questions', nextval('LISTING_VERSION_SEQ'), now()), ('question-summaries', nextval('LISTING_VERSION_SEQ'), now()), ('answers', nextval('LISTING_VERSION_SEQ'), now()) ON CONFLICT (NAME) DO NOTHING;
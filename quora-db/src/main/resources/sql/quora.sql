@@ -1,4 +1,6 @@
 
+--Version 1: base schema. Later changes are applied by the versioned scripts in the migration directory, see quora-db/pom.xml.
+
 --USERS table is created to store the details of all the users
 DROP TABLE IF EXISTS USERS CASCADE;
 CREATE TABLE IF NOT EXISTS USERS(id SERIAL, uuid VARCHAR(200) NOT NULL ,firstName VARCHAR(30) NOT NULL , lastName VARCHAR(30) NOT NULL ,userName VARCHAR(30) UNIQUE NOT NULL,  email VARCHAR(50) UNIQUE NOT NULL ,password VARCHAR(255) NOT NULL, salt VARCHAR(200) NOT NULL ,country VARCHAR(30) ,aboutMe VARCHAR(50),dob VARCHAR(30), role VARCHAR(30),contactNumber VARCHAR(30), PRIMARY KEY (id));
@@ -26,3 +26,10 @@ insert into question (id,uuid,content,date,user_id) values(1024,'database_questi
 
 --Insert values in ANSWER table
 insert into answer(id,uuid,ans,date,user_id,question_id) values (1024,'database_answer_uuid','my_answer','2018-09-17 19:41:19.593',1026,1024);
+
+
+--Move the id sequences past the ids inserted above, the entities take their ids in blocks from these sequences
+SELECT setval('users_id_seq', (SELECT MAX(id) FROM users));
+SELECT setval('user_auth_id_seq', (SELECT MAX(id) FROM user_auth));
+SELECT setval('question_id_seq', (SELECT MAX(id) FROM question));
+SELECT setval('answer_id_seq', (SELECT MAX(id) FROM answer));
@@ -1,16 +1,22 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.cache.ListingVersion;
+import com.upgrad.quora.service.cache.ListingVersions;
+import com.upgrad.quora.service.cache.UserSession;
+import com.upgrad.quora.service.cache.UserSessionCache;
+import com.upgrad.quora.service.common.BatchedIterable;
 import com.upgrad.quora.service.dao.AnswerDao;
 import com.upgrad.quora.service.dao.QuestionDao;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.AnswerEntity;
 import com.upgrad.quora.service.entity.QuestionsEntity;
-import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AnswerNotFoundException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.projection.AnswerDetails;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +35,13 @@ public class AnswerBusinessService {
 
     @Autowired private AnswerDao answerDao;
 
+    @Autowired private UserSessionCache userSessionCache;
+
+    @Autowired private ListingVersions listingVersions;
+
+    @Value("${quora.streaming.fetch-size:500}")
+    private int streamingFetchSize;
+
     /**
      * This method manages business rules for posting new answer
      *
@@ -46,21 +59,22 @@ public class AnswerBusinessService {
             throw new InvalidQuestionException("QUES-001", "The question entered is invalid");
         }
 
-        UserAuthTokenEntity userAuthTokenEntity = userDao.getAuthToken(accessToken);
-        if (userAuthTokenEntity == null) {
+        UserSession userSession = userSessionCache.getSession(accessToken);
+        if (userSession == null) {
             throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
         }
 
-        if (hasUserSignedOut(userAuthTokenEntity.getLogoutAt())) {
+        if (hasUserSignedOut(userSession.getLogoutAt())) {
             throw new AuthorizationFailedException(
                     "ATHR-002", "User is signed out.Sign in first to post an answer");
         }
 
         // Populate the answerEntity with userEntity and questionEntity objects
-        answerEntity.setUsers(userAuthTokenEntity.getUsers());
+        answerEntity.setUsers(userDao.getUserReference(userSession.getUserId()));
         answerEntity.setQuestionsEntity(questionEntity);
 
         answerDao.createAnswer(answerEntity);
+        listingVersions.answersChanged(questionUuid);
     }
 
     /**
@@ -75,12 +89,12 @@ public class AnswerBusinessService {
     public void updateAnswer(String accessToken, String answerUuid, String updatedAnswer)
             throws AuthorizationFailedException, AnswerNotFoundException {
 
-        UserAuthTokenEntity userAuthTokenEntity = userDao.getAuthToken(accessToken);
-        if (userAuthTokenEntity == null) {
+        UserSession userSession = userSessionCache.getSession(accessToken);
+        if (userSession == null) {
             throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
         }
 
-        if (hasUserSignedOut(userAuthTokenEntity.getLogoutAt())) {
+        if (hasUserSignedOut(userSession.getLogoutAt())) {
             throw new AuthorizationFailedException(
                     "ATHR-002", "User is signed out.Sign in first to edit an answer");
         }
@@ -91,11 +105,10 @@ public class AnswerBusinessService {
             throw new AnswerNotFoundException("ANS-001", "Entered answer uuid does not exist");
         }
 
-        UserEntity loggedUser = userAuthTokenEntity.getUsers();
         UserEntity answerOwner = existingAnswer.getUsers();
 
         // Checks if logged in user is owner of the answer
-        if (!answerOwner.getUuid().equals(loggedUser.getUuid())) {
+        if (!answerOwner.getUuid().equals(userSession.getUserUuid())) {
             throw new AuthorizationFailedException(
                     "ATHR-003", "Only the answer owner can edit the answer");
         }
@@ -103,6 +116,7 @@ public class AnswerBusinessService {
         existingAnswer.setAns(updatedAnswer);
 
         answerDao.updateAnswer(existingAnswer);
+        listingVersions.answersChanged(existingAnswer.getQuestionsEntity().getUuid());
     }
 
     /**
@@ -115,11 +129,11 @@ public class AnswerBusinessService {
      */
     public void deleteAnswer(String answerUuid, String accessToken)
             throws AuthorizationFailedException, AnswerNotFoundException {
-        UserAuthTokenEntity userAuthTokenEntity = userDao.getAuthToken(accessToken);
-        if (userAuthTokenEntity == null) {
+        UserSession userSession = userSessionCache.getSession(accessToken);
+        if (userSession == null) {
             throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
         }
-        if (hasUserSignedOut(userAuthTokenEntity.getLogoutAt())) {
+        if (hasUserSignedOut(userSession.getLogoutAt())) {
             throw new AuthorizationFailedException(
                     "ATHR-002", "User is signed out.Sign in first to edit an answer");
         }
@@ -127,11 +141,12 @@ public class AnswerBusinessService {
         if (answerEntity == null) {
             throw new AnswerNotFoundException("ANS-001", "Entered answer uuid does not exist");
         }
-        if (!answerEntity.getUsers().getUuid().equals(userAuthTokenEntity.getUsers().getUuid())
-                && !userAuthTokenEntity.getUsers().getRole().equals("admin")) {
+        if (!answerEntity.getUsers().getUuid().equals(userSession.getUserUuid())
+                && !("admin").equals(userSession.getRole())) {
             throw new AuthorizationFailedException(
                     "ATHR-003", "Only the answer owner or admin can delete the answer");
         }
+        listingVersions.answersChanged(answerEntity.getQuestionsEntity().getUuid());
         answerDao.deleteAnswer(answerEntity);
     }
 
@@ -146,7 +161,10 @@ public class AnswerBusinessService {
     }
 
     /**
-     * This method manages business rules for retreiving list of answers of particular question
+     * This method manages business rules for retreiving list of answers of particular question. The
+     * answers are read as read-only rows together with the question content in one SQL statement; the
+     * question itself is only looked up when there is no answer, to tell an unanswered question from
+     * a missing one
      *
      * @param questionUuid
      * @param token
@@ -154,25 +172,95 @@ public class AnswerBusinessService {
      * @throws AuthorizationFailedException
      * @throws InvalidQuestionException
      */
-    public List<AnswerEntity> getAllAnswersOfQuestion(String questionUuid, String token)
+    public List<AnswerDetails> getAllAnswersOfQuestion(String questionUuid, String token)
             throws AuthorizationFailedException, InvalidQuestionException {
 
-        UserAuthTokenEntity tokenEntity = userDao.getAuthToken(token);
+        checkAnswerListingAccess(token);
+        List<AnswerDetails> answers = answerDao.getAnswerDetailsByQUuid(questionUuid);
+        if (answers.isEmpty()) {
+            getQuestionForAnswerListing(questionUuid);
+        }
+        return answers;
+    }
+
+    /**
+     * This method manages business rules for retreiving the current version of the answer listing of
+     * particular question, which tells a client whether the answers it got before have changed without
+     * reading them again
+     *
+     * @param questionUuid
+     * @param token
+     * @return
+     * @throws AuthorizationFailedException
+     */
+    public ListingVersion getAnswersVersion(String questionUuid, String token)
+            throws AuthorizationFailedException {
+        checkAnswerListingAccess(token);
+        return listingVersions.getAnswersVersion(questionUuid);
+    }
+
+    /**
+     * This method checks that the user may list the answers
+     *
+     * @param token
+     * @throws AuthorizationFailedException
+     */
+    private void checkAnswerListingAccess(String token) throws AuthorizationFailedException {
+
+        UserSession userSession = userSessionCache.getSession(token);
 
-        if (tokenEntity == null) {
+        if (userSession == null) {
             throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
         }
 
-        if (hasUserSignedOut(tokenEntity.getLogoutAt())) {
+        if (hasUserSignedOut(userSession.getLogoutAt())) {
             throw new AuthorizationFailedException(
                     "ATHR-002", "User is signed out.Sign in first to get the answers");
         }
+    }
 
+    /**
+     * This method checks that the question whose answers are listed exists
+     *
+     * @param questionUuid
+     * @return the question whose answers are listed
+     * @throws InvalidQuestionException
+     */
+    private QuestionsEntity getQuestionForAnswerListing(String questionUuid)
+            throws InvalidQuestionException {
         QuestionsEntity questionsEntity = questionDao.getQuestionByUuid(questionUuid);
         if (questionsEntity == null) {
             throw new InvalidQuestionException(
                     "QUES-001", "The question with entered uuid whose details are to be seen does not exist");
         }
-        return answerDao.getAnswerByQUuid(questionsEntity);
+        return questionsEntity;
+    }
+
+    /**
+     * This method manages business rules for retreiving all the answers of particular question, in
+     * the order they were posted, for streaming them to the client. The access token and the question
+     * are checked right away; the answers are read lazily in batches of read-only rows carrying the
+     * question content, while the returned iterable is consumed
+     *
+     * @param questionUuid
+     * @param token
+     * @return
+     * @throws AuthorizationFailedException
+     * @throws InvalidQuestionException
+     */
+    public Iterable<AnswerDetails> getAllAnswersOfQuestionInBatches(
+            final String questionUuid, final String token)
+            throws AuthorizationFailedException, InvalidQuestionException {
+
+        checkAnswerListingAccess(token);
+        getQuestionForAnswerListing(questionUuid);
+
+        return new BatchedIterable<AnswerDetails>(streamingFetchSize) {
+            @Override
+            protected List<AnswerDetails> fetchBatch(AnswerDetails last, int batchSize) {
+                return answerDao.getAnswerDetailsByQUuidAfter(
+                        questionUuid, last == null ? 0 : last.getId(), batchSize);
+            }
+        };
     }
 }
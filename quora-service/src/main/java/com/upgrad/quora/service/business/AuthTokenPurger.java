@@ -0,0 +1,81 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.dao.UserDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Background job deleting the USER_AUTH rows of the sessions that were signed out or expired more
+ * than the retention ago, since every signin adds a row and nothing else ever removes one. The rows
+ * are deleted in batches of batch-size, each in its own short transaction, so that the purge never
+ * holds many row locks for long. The expired revocations of deleted users (REVOKED_USER) are deleted
+ * along. The job runs on its schedule unless quora.session-purge.enabled is false.
+ */
+@Component
+public class AuthTokenPurger {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthTokenPurger.class);
+
+    @Autowired private UserDao userDao;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final boolean enabled;
+
+    private final long retentionHours;
+
+    private final int batchSize;
+
+    /**
+     * @param enabled        - whether the purge runs on its schedule
+     * @param retentionHours - hours a signed out or expired session is kept before it is deleted
+     * @param batchSize      - rows deleted per transaction
+     */
+    public AuthTokenPurger(
+            @Value("${quora.session-purge.enabled:true}") final boolean enabled,
+            @Value("${quora.session-purge.retention-hours:168}") final long retentionHours,
+            @Value("${quora.session-purge.batch-size:1000}") final int batchSize) {
+        this.enabled = enabled;
+        this.retentionHours = retentionHours;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(
+            initialDelayString = "${quora.session-purge.interval-ms:3600000}",
+            fixedDelayString = "${quora.session-purge.interval-ms:3600000}")
+    public void purgeOnSchedule() {
+        if (enabled) {
+            purge();
+        }
+    }
+
+    /**
+     * This method deletes, batch after batch, the sessions signed out or expired before the retention,
+     * until a batch comes back short
+     *
+     * @return number of deleted sessions
+     */
+    public int purge() {
+        final ZonedDateTime before = ZonedDateTime.now().minusHours(retentionHours);
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int removed = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> userDao.deleteStaleAuthTokens(before, batchSize));
+            removed += deleted;
+        } while (deleted == batchSize);
+        LOGGER.info("Purged {} sessions signed out or expired before {}", removed, before);
+        final int revocations =
+                transactionTemplate.execute(status -> userDao.deleteExpiredUserRevocations(ZonedDateTime.now()));
+        LOGGER.info("Purged {} expired revocations of deleted users", revocations);
+        return removed;
+    }
+}
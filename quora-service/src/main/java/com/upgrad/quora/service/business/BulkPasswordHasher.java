@@ -0,0 +1,90 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class hashes the passwords of bulk user imports in parallel on its own fixed pool of threads,
+ * apart from the threads hashing the passwords of interactive signups and signins, so that an
+ * import cannot slow those down by more than the share of processors given to it. The queue holds
+ * one batch; when concurrent imports fill it, the importing thread hashes the password itself, so
+ * the work queued never exceeds one batch.
+ */
+@Component
+public class BulkPasswordHasher implements DisposableBean {
+
+    @Autowired private PasswordCryptographyProvider passwordCryptographyProvider;
+
+    private final ExecutorService executor;
+
+    /**
+     * @param threads   - number of hashing threads, half the available processors when not positive
+     * @param batchSize - number of passwords hashed per batch, the capacity of the queue
+     */
+    public BulkPasswordHasher(
+            @Value("${quora.user-import.hashing-threads:0}") final int threads,
+            @Value("${quora.user-import.batch-size:500}") final int batchSize) {
+        final int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.executor =
+                new ThreadPoolExecutor(
+                        poolSize,
+                        poolSize,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<Runnable>(Math.max(1, batchSize)),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "quora-import-hashing-" + threadNumber.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        },
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * This method generates a salt and hashes every given password, in parallel
+     *
+     * @param passwords
+     * @return for every password, in the same order, the String array returned by
+     *     PasswordCryptographyProvider.encrypt
+     */
+    public List<String[]> encryptAll(final List<String> passwords) {
+        final List<Future<String[]>> futures = new ArrayList<>(passwords.size());
+        for (String password : passwords) {
+            futures.add(executor.submit(() -> passwordCryptographyProvider.encrypt(password)));
+        }
+        final List<String[]> encrypted = new ArrayList<>(passwords.size());
+        try {
+            for (Future<String[]> future : futures) {
+                encrypted.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(false));
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e.getCause());
+        }
+        return encrypted;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,38 @@
+package com.upgrad.quora.service.business;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration of the server keys used to sign and verify JWT access tokens (prefix "quora.jwt").
+ * Every key is identified by a key id (kid) which is written in the header of the tokens it signs.
+ * To rotate keys, add a new key, point active-key-id at it, and remove the old key once the tokens
+ * it signed have expired.
+ */
+@Component
+@ConfigurationProperties(prefix = "quora.jwt")
+public class JwtKeyProperties {
+
+    private String activeKeyId;
+
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public void setActiveKeyId(String activeKeyId) {
+        this.activeKeyId = activeKeyId;
+    }
+
+    public Map<String, String> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(Map<String, String> keys) {
+        this.keys = keys;
+    }
+}
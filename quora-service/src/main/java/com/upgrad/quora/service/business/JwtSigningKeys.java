@@ -0,0 +1,83 @@
+package com.upgrad.quora.service.business;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class holds the HMAC512 algorithm and the verifier of every configured signing key, keyed by
+ * key id. They are built once at start-up and are thread-safe, so signing in and verifying tokens do
+ * not allocate any key material per request.
+ */
+@Component
+public class JwtSigningKeys {
+
+    /** Size in bytes of a HMAC512 key; a shorter secret can be brute forced into forged tokens */
+    private static final int MIN_SECRET_BYTES = 64;
+
+    private final String activeKeyId;
+
+    private final Map<String, Algorithm> algorithms;
+
+    private final Map<String, JWTVerifier> verifiers;
+
+    @Autowired
+    public JwtSigningKeys(final JwtKeyProperties jwtKeyProperties) {
+        this(jwtKeyProperties.getActiveKeyId(), jwtKeyProperties.getKeys());
+    }
+
+    /**
+     * @param activeKeyId - id of the key used to sign new tokens
+     * @param keys        - secrets of all the keys accepted for verification, keyed by key id
+     * @throws UnexpectedException if the active key is not configured or a secret is missing or
+     *                             shorter than 64 bytes
+     */
+    public JwtSigningKeys(final String activeKeyId, final Map<String, String> keys) {
+        if (activeKeyId == null || !keys.containsKey(activeKeyId)) {
+            throw new UnexpectedException(GenericErrorCode.GEN_001);
+        }
+        final Map<String, Algorithm> algorithms = new HashMap<>();
+        final Map<String, JWTVerifier> verifiers = new HashMap<>();
+        for (Map.Entry<String, String> key : keys.entrySet()) {
+            if (key.getValue() == null || key.getValue().getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+                throw new UnexpectedException(GenericErrorCode.GEN_001);
+            }
+            final Algorithm algorithm;
+            try {
+                algorithm = Algorithm.HMAC512(key.getValue());
+            } catch (IllegalArgumentException e) {
+                throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+            }
+            algorithms.put(key.getKey(), algorithm);
+            verifiers.put(key.getKey(), JWT.require(algorithm).withIssuer(JwtTokenProvider.TOKEN_ISSUER).build());
+        }
+        this.activeKeyId = activeKeyId;
+        this.algorithms = Collections.unmodifiableMap(algorithms);
+        this.verifiers = Collections.unmodifiableMap(verifiers);
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public Algorithm getActiveAlgorithm() {
+        return algorithms.get(activeKeyId);
+    }
+
+    /**
+     * @param keyId - key id read from the header of a token
+     * @return - verifier of the key, or null if no such key is configured
+     */
+    public JWTVerifier getVerifier(final String keyId) {
+        return keyId == null ? null : verifiers.get(keyId);
+    }
+}
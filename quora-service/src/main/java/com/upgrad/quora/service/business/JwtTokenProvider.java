@@ -1,54 +1,93 @@
 package com.upgrad.quora.service.business;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
-import com.upgrad.quora.service.common.GenericErrorCode;
-import com.upgrad.quora.service.common.UnexpectedException;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
 
 import java.time.ZonedDateTime;
-import java.time.temporal.ChronoField;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 /**
- * This class is used in the project to provide JWT token after successful authentication
+ * This class is used in the project to provide JWT token after successful authentication and to verify the JWT tokens
+ * presented by the users afterwards.
  */
+@Component
 public class JwtTokenProvider {
-    private static final String TOKEN_ISSUER = "https://quora.io";
+    static final String TOKEN_ISSUER = "https://quora.io";
 
-    private final Algorithm algorithm;
+    public static final String USER_ID_CLAIM = "uid";
+
+    public static final String ROLE_CLAIM = "role";
+
+    private final JwtSigningKeys signingKeys;
 
     /**
-     * A constructor for JwtTokenProvider class which receives user password as an argument to be used in the signature part of JWT access token.
+     * A constructor for JwtTokenProvider class which receives the configured server keys to be used in the signature part of JWT access token.
      */
-    public JwtTokenProvider(final String secret) {
-        try {
-            algorithm = Algorithm.HMAC512(secret);
-        } catch (IllegalArgumentException e) {
-            throw new UnexpectedException(GenericErrorCode.GEN_001);
-        }
+    @Autowired
+    public JwtTokenProvider(final JwtSigningKeys signingKeys) {
+        this.signingKeys = signingKeys;
     }
 
 
     /**
-     * This method receives uuid of the user, current time and expiry time of the access token.
+     * This method receives uuid, id and role of the user, current time and expiry time of the access token.
      * This information is stored in the payload of the JWT token and the JWT token is returned by this method.
+     * Every token gets a random JWT id, so that two sign-ins of the same user within one second get different tokens.
      */
     /**
      * @param userUuid        - uuid of the user
+     * @param userId          - id of the user
+     * @param role            - role of the user
      * @param issuedDateTime  - current time
      * @param expiresDateTime - expiry time of the JWT token
      * @return - generated JWT token
      */
-    public String generateToken(final String userUuid, final ZonedDateTime issuedDateTime, final ZonedDateTime expiresDateTime) {
+    public String generateToken(final String userUuid, final Integer userId, final String role, final ZonedDateTime issuedDateTime, final ZonedDateTime expiresDateTime) {
 
-        final Date issuedAt = new Date(issuedDateTime.getLong(ChronoField.INSTANT_SECONDS));
-        final Date expiresAt = new Date(expiresDateTime.getLong(ChronoField.INSTANT_SECONDS));
+        final Date issuedAt = Date.from(issuedDateTime.toInstant());
+        final Date expiresAt = Date.from(expiresDateTime.toInstant());
 
         return JWT.create().withIssuer(TOKEN_ISSUER) //
-                .withKeyId(UUID.randomUUID().toString())
+                .withKeyId(signingKeys.getActiveKeyId())
                 .withAudience(userUuid) //
-                .withIssuedAt(issuedAt).withExpiresAt(expiresAt).sign(algorithm);
+                .withJWTId(UUID.randomUUID().toString()) //
+                .withClaim(USER_ID_CLAIM, userId) //
+                .withClaim(ROLE_CLAIM, role) //
+                .withIssuedAt(issuedAt).withExpiresAt(expiresAt).sign(signingKeys.getActiveAlgorithm());
+    }
+
+    /**
+     * This method verifies the signature (with the key named by the token's key id), issuer and expiry of the given JWT token and checks that it is issued for
+     * exactly one user (audience) and carries the user id claim. No database access is involved.
+     */
+    /**
+     * @param token - JWT token presented by the user
+     * @return - decoded JWT token, or null if the token is not a valid JWT token issued by this application
+     */
+    public DecodedJWT verifyToken(final String token) {
+        final DecodedJWT decodedJWT;
+        try {
+            final JWTVerifier verifier = signingKeys.getVerifier(JWT.decode(token).getKeyId());
+            if (verifier == null) {
+                return null;
+            }
+            decodedJWT = verifier.verify(token);
+        } catch (JWTVerificationException e) {
+            return null;
+        }
+
+        final List<String> audience = decodedJWT.getAudience();
+        if (audience == null || audience.size() != 1 || audience.get(0).isEmpty()
+                || decodedJWT.getClaim(USER_ID_CLAIM).asInt() == null || decodedJWT.getExpiresAt() == null) {
+            return null;
+        }
+        return decodedJWT;
     }
 
 }
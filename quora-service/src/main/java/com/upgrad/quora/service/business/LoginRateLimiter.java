@@ -0,0 +1,57 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.GenericExceptionCode;
+import com.upgrad.quora.service.common.TokenBucketLimiter;
+import com.upgrad.quora.service.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class limits the sign in attempts per client address and per username with token buckets, so
+ * that brute forcing a password or stuffing credentials cannot make the application run a database
+ * query and a password hash for every attempt. It is checked before any of this work is done.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final TokenBucketLimiter clientLimiter;
+
+    private final TokenBucketLimiter usernameLimiter;
+
+    public LoginRateLimiter(
+            @Value("${quora.login-rate-limit.client.capacity:30}") final int clientCapacity,
+            @Value("${quora.login-rate-limit.client.per-minute:30}") final int clientPerMinute,
+            @Value("${quora.login-rate-limit.username.capacity:5}") final int usernameCapacity,
+            @Value("${quora.login-rate-limit.username.per-minute:5}") final int usernamePerMinute,
+            @Value("${quora.login-rate-limit.max-keys:100000}") final int maxKeys) {
+        this.clientLimiter = new TokenBucketLimiter(clientCapacity, clientPerMinute, maxKeys);
+        this.usernameLimiter = new TokenBucketLimiter(usernameCapacity, usernamePerMinute, maxKeys);
+    }
+
+    /**
+     * This method counts a sign in attempt against the limits of the client address and of the
+     * username. The client address is checked first, so that a client over its limit cannot create
+     * buckets for new usernames
+     *
+     * @param username
+     * @param clientAddress
+     * @throws TooManyRequestsException if either limit is exceeded
+     */
+    public void checkSignin(final String username, final String clientAddress)
+            throws TooManyRequestsException {
+        check(clientLimiter, clientAddress);
+        check(usernameLimiter, username);
+    }
+
+    private static void check(final TokenBucketLimiter limiter, final String key)
+            throws TooManyRequestsException {
+        final long retryAfterMillis = limiter.tryAcquire(key);
+        if (retryAfterMillis > 0) {
+            throw new TooManyRequestsException(
+                    GenericExceptionCode.ATH_003.getCode(),
+                    GenericExceptionCode.ATH_003.getDescription(),
+                    limiter.getCapacity(),
+                    (retryAfterMillis + 999) / 1000);
+        }
+    }
+}
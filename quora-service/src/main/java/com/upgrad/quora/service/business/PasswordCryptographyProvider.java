@@ -1,48 +1,127 @@
 package com.upgrad.quora.service.business;
 
 
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Base64;
-import java.util.Random;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 
+/**
+ * Hashes and verifies the passwords of the users. A password is stored in a self-describing format,
+ * "$pbkdf2-sha512$[iterations]$[key length in bits]$[base64 salt]$[base64 hash]", so that the cost
+ * can be changed (quora.password-hash.*) without breaking the passwords hashed before. Passwords
+ * stored before this format was introduced are a hex hash of 1000 iterations and 64 bits, with the
+ * salt in its own column; they are still verified and are reported by needsRehash.
+ */
 @Component
 public class PasswordCryptographyProvider {
 
+    private static final String HASH_ALGORITHM = "pbkdf2-sha512";
+    private static final String HASH_PREFIX = "$" + HASH_ALGORITHM + "$";
     private static String SECRET_KEY_ALGORITHM = "PBKDF2WithHmacSHA512";
-    private static int HASHING_ITERATIONS = 1000;
-    private static int HASHING_KEY_LENGTH = 64;
+    private static int LEGACY_HASHING_ITERATIONS = 1000;
+    private static int LEGACY_HASHING_KEY_LENGTH = 64;
+    private static int SALT_LENGTH = 32;
     private final static char[] hexArray = "0123456789ABCDEF".toCharArray();
 
+    /**
+     * SecureRandom is thread-safe and seeding it is costly, so one instance generates all the salts.
+     */
+    private static final SecureRandom SALT_RANDOM = new SecureRandom();
+
+    /**
+     * SecretKeyFactory is not thread-safe and looking it up goes through the security providers, so
+     * every thread hashing passwords looks it up once and reuses it.
+     */
+    private static final ThreadLocal<SecretKeyFactory> SECRET_KEY_FACTORY =
+            ThreadLocal.withInitial(
+                    () -> {
+                        try {
+                            return SecretKeyFactory.getInstance(SECRET_KEY_ALGORITHM);
+                        } catch (NoSuchAlgorithmException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+
+    private final int hashingIterations;
+
+    private final int hashingKeyLength;
+
+    /**
+     * @param hashingIterations - PBKDF2 iterations of the passwords hashed from now on
+     * @param hashingKeyLength  - length in bits of the passwords hashed from now on
+     */
+    @Autowired
+    public PasswordCryptographyProvider(
+            @Value("${quora.password-hash.iterations:100000}") final int hashingIterations,
+            @Value("${quora.password-hash.key-length:512}") final int hashingKeyLength) {
+        this.hashingIterations = hashingIterations;
+        this.hashingKeyLength = hashingKeyLength;
+    }
+
     /**
      * This method generates Salt and hashed Password
      *
      * @param password char array.
-     * @return String array with [0] encoded salt [1] hashed password.
+     * @return String array with [0] encoded salt [1] hashed password in the stored format.
      */
     public String[] encrypt(final String password) {
         byte[] salt = generateSaltBytes();
-        byte[] hashedPassword = hashPassword(password.toCharArray(), salt);
-        return new String[]{getBase64EncodedBytesAsString(salt), bytesToHex(hashedPassword)};
+        byte[] hashedPassword = hashPassword(password.toCharArray(), salt, hashingIterations, hashingKeyLength);
+        String encodedSalt = getBase64EncodedBytesAsString(salt);
+        return new String[]{encodedSalt,
+                HASH_PREFIX + hashingIterations + "$" + hashingKeyLength + "$" + encodedSalt + "$"
+                        + getBase64EncodedBytesAsString(hashedPassword)};
     }
 
     /**
-     * This method re-generates hashed Password from raw-password and salt.
-     * This will be used during authentication.
+     * This method re-generates the hashed Password from the raw-password with the parameters of the
+     * stored password and compares both. This will be used during authentication.
      *
-     * @param password char array.
-     * @param salt     byte array.
-     * @return byte array of hashed password.
+     * @param password       raw password.
+     * @param storedPassword hashed password as stored for the user.
+     * @param salt           salt as stored for the user, used by the passwords in the legacy format only.
+     * @return true if the password matches the stored password.
      */
-    public static String encrypt(final String password, String salt) {
-        return bytesToHex(hashPassword(password.toCharArray(), getBase64DecodedStringAsBytes(salt)));
+    public boolean matches(final String password, final String storedPassword, final String salt) {
+        try {
+            if (!storedPassword.startsWith(HASH_PREFIX)) {
+                byte[] hashedPassword = hashPassword(password.toCharArray(), getBase64DecodedStringAsBytes(salt),
+                        LEGACY_HASHING_ITERATIONS, LEGACY_HASHING_KEY_LENGTH);
+                return bytesToHex(hashedPassword).equals(storedPassword);
+            }
+            String[] parts = storedPassword.split("\\$");
+            if (parts.length != 6) {
+                return false;
+            }
+            byte[] expected = getBase64DecodedStringAsBytes(parts[5]);
+            byte[] hashedPassword = hashPassword(password.toCharArray(), getBase64DecodedStringAsBytes(parts[4]),
+                    Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+            return MessageDigest.isEqual(expected, hashedPassword);
+        } catch (IllegalArgumentException e) {
+            // malformed salt, hash or parameters
+            return false;
+        }
+    }
+
+    /**
+     * This method tells whether a stored password was hashed with other parameters than the current
+     * ones, legacy format included, and should be hashed again once the raw password is known.
+     *
+     * @param storedPassword hashed password as stored for the user.
+     * @return true if the password should be hashed again.
+     */
+    public boolean needsRehash(final String storedPassword) {
+        return !storedPassword.startsWith(HASH_PREFIX + hashingIterations + "$" + hashingKeyLength + "$");
     }
 
     /**
@@ -51,28 +130,31 @@ public class PasswordCryptographyProvider {
      * @return 32 bytes long array
      */
     private static byte[] generateSaltBytes() {
-        final Random random = new SecureRandom();
-        byte[] saltBytes = new byte[32];
-        random.nextBytes(saltBytes);
+        byte[] saltBytes = new byte[SALT_LENGTH];
+        SALT_RANDOM.nextBytes(saltBytes);
         return saltBytes;
     }
 
     /**
      * This method generates hashed Password
      *
-     * @param password char array.
-     * @param salt     byte array.
+     * @param password   char array.
+     * @param salt       byte array.
+     * @param iterations PBKDF2 iterations.
+     * @param keyLength  length of the hash in bits.
      * @return byte array of hashed password.
      */
-    private static byte[] hashPassword(final char[] password, final byte[] salt) {
+    private static byte[] hashPassword(final char[] password, final byte[] salt, final int iterations,
+                                       final int keyLength) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, keyLength);
         try {
-            SecretKeyFactory skf = SecretKeyFactory.getInstance(SECRET_KEY_ALGORITHM);
-            PBEKeySpec spec = new PBEKeySpec(password, salt, HASHING_ITERATIONS, HASHING_KEY_LENGTH);
-            SecretKey key = skf.generateSecret(spec);
+            SecretKey key = SECRET_KEY_FACTORY.get().generateSecret(spec);
             byte[] res = key.getEncoded();
             return res;
-        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+        } catch (InvalidKeySpecException e) {
             throw new RuntimeException(e);
+        } finally {
+            spec.clearPassword();
         }
     }
 
@@ -0,0 +1,95 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.GenericExceptionCode;
+import com.upgrad.quora.service.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class runs the requests which hash a password (signup and signin) on a dedicated pool of
+ * threads instead of the servlet request threads, so that a burst of them cannot take every request
+ * thread away from the other endpoints. Both the number of threads and the number of waiting
+ * requests are limited, a request submitted while the queue is full is rejected with SRV-001.
+ */
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    private final long retryAfterSeconds;
+
+    /**
+     * @param poolSize          - number of hashing threads, the number of available processors when not positive
+     * @param queueCapacity     - number of requests that may wait for a hashing thread
+     * @param retryAfterSeconds - seconds after which a rejected request may be retried
+     */
+    @Autowired
+    public PasswordHashingExecutor(
+            @Value("${quora.hashing.pool-size:0}") final int poolSize,
+            @Value("${quora.hashing.queue-capacity:64}") final int queueCapacity,
+            @Value("${quora.hashing.retry-after-seconds:1}") final long retryAfterSeconds) {
+        final int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadFactory threadFactory =
+                runnable -> {
+                    Thread thread = new Thread(runnable, "quora-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<Runnable>(queueCapacity),
+                        threadFactory,
+                        new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * This method queues the given task on the hashing threads. The returned future completes with
+     * the result of the task, or exceptionally with the exception thrown by the task as is, so that it
+     * is handled like an exception thrown by a controller method
+     *
+     * @param task
+     * @return future result of the task
+     * @throws ServiceUnavailableException if the queue of the hashing threads is full
+     */
+    public <T> CompletableFuture<T> submit(final Callable<T> task) throws ServiceUnavailableException {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            executor.execute(
+                    () -> {
+                        try {
+                            future.complete(task.call());
+                        } catch (Throwable e) {
+                            future.completeExceptionally(e);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException(
+                    GenericExceptionCode.SRV_001.getCode(),
+                    GenericExceptionCode.SRV_001.getDescription(),
+                    retryAfterSeconds);
+        }
+        return future;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
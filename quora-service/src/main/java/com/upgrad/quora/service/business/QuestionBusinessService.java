@@ -1,21 +1,34 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.cache.ListingVersion;
+import com.upgrad.quora.service.cache.ListingVersions;
+import com.upgrad.quora.service.cache.UserSession;
+import com.upgrad.quora.service.cache.UserSessionCache;
+import com.upgrad.quora.service.common.BatchedIterable;
 import com.upgrad.quora.service.common.GenericExceptionCode;
+import com.upgrad.quora.service.dao.AnswerDao;
 import com.upgrad.quora.service.dao.QuestionDao;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.QuestionsEntity;
-import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.InvalidCursorException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.projection.AnswerSummary;
+import com.upgrad.quora.service.projection.QuestionDetails;
+import com.upgrad.quora.service.projection.QuestionMatch;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This service class has methods related to business rules of following functionalities
@@ -29,6 +42,21 @@ public class QuestionBusinessService {
 
     @Autowired private UserDao userDao;
 
+    @Autowired private AnswerDao answerDao;
+
+    @Autowired private UserSessionCache userSessionCache;
+
+    @Autowired private ListingVersions listingVersions;
+
+    @Value("${quora.question-page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${quora.question-page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${quora.streaming.fetch-size:500}")
+    private int streamingFetchSize;
+
     /**
      * This method is used to manage business rules to create/post a new question, and handles various
      * scenarios
@@ -40,20 +68,21 @@ public class QuestionBusinessService {
     public void createQuestionService(QuestionsEntity questionsEntity, String accessToken)
             throws AuthorizationFailedException {
 
-        UserAuthTokenEntity userAuthTokenEntity = userDao.getAuthToken(accessToken);
-        if (userAuthTokenEntity == null) {
+        UserSession userSession = userSessionCache.getSession(accessToken);
+        if (userSession == null) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_001.getCode(), GenericExceptionCode.ATHR_001.getDescription());
         }
 
-        if ((userAuthTokenEntity.getLogoutAt() != null)) {
+        if ((userSession.getLogoutAt() != null)) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_002_POST_QUESTION.getCode(),
                     GenericExceptionCode.ATHR_002_POST_QUESTION.getDescription());
         }
 
-        questionsEntity.setUserEntity(userAuthTokenEntity.getUsers());
+        questionsEntity.setUserEntity(userDao.getUserReference(userSession.getUserId()));
         questionDao.createQuestion(questionsEntity);
+        listingVersions.questionsChanged();
     }
 
     /**
@@ -71,20 +100,20 @@ public class QuestionBusinessService {
         final QuestionsEntity existingQuestionEntity =
                 questionDao.getQuestionByUuid(questionEntity.getUuid());
 
-        final UserAuthTokenEntity userAuthTokenEntity = userDao.getAuthToken(accessToken);
+        final UserSession userSession = userSessionCache.getSession(accessToken);
 
-        if (userAuthTokenEntity == null) {
+        if (userSession == null) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_001.getCode(), GenericExceptionCode.ATHR_001.getDescription());
-        } else if ((userAuthTokenEntity.getLogoutAt() != null)
-                && userAuthTokenEntity.getLogoutAt().isBefore(ZonedDateTime.now())) {
+        } else if ((userSession.getLogoutAt() != null)
+                && userSession.getLogoutAt().isBefore(ZonedDateTime.now())) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_002_EDIT_QUESTION.getCode(),
                     GenericExceptionCode.ATHR_002_EDIT_QUESTION.getDescription());
         } else if (existingQuestionEntity != null && !existingQuestionEntity
                 .getUserEntity()
                 .getId()
-                .equals(userAuthTokenEntity.getUsers().getId())) {
+                .equals(userSession.getUserId())) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_003_QUES_EDIT.getCode(),
                     GenericExceptionCode.ATHR_003_QUES_EDIT.getDescription());
@@ -93,6 +122,9 @@ public class QuestionBusinessService {
         }
         existingQuestionEntity.setContent(questionEntity.getContent());
         updateQuestion(existingQuestionEntity);
+        // The content of the question is listed with its answers too
+        listingVersions.questionsChanged();
+        listingVersions.answersChanged(existingQuestionEntity.getUuid());
     }
 
     /**
@@ -106,28 +138,196 @@ public class QuestionBusinessService {
     }
 
     /**
-     * This method is used to handle business rules to get all the questions in quora application
+     * This method is used to handle business rules to get a page of the questions in quora
+     * application, newest first. The page size is capped, and the returned page carries the cursor
+     * of the next page
+     *
+     * @param accessToken
+     * @param cursor cursor returned with the previous page, or null for the first page
+     * @param limit requested page size, or null for the default page size
+     * @return
+     * @throws AuthorizationFailedException
+     * @throws InvalidCursorException
+     */
+    public QuestionPage getQuestionPage(String accessToken, String cursor, Integer limit)
+            throws AuthorizationFailedException, InvalidCursorException {
+
+        checkQuestionListingAccess(accessToken);
+        return readQuestionPage(cursor, limit);
+    }
+
+    /**
+     * This method is used to handle business rules to get a page of the questions in quora
+     * application, like getQuestionPage, together with the number of answers and the date of the
+     * latest answer of every question. The answers of the whole page are summarised by one aggregate
+     * query, so the page is read with two SQL statements whatever its size
+     *
+     * @param accessToken
+     * @param cursor cursor returned with the previous page, or null for the first page
+     * @param limit requested page size, or null for the default page size
+     * @return
+     * @throws AuthorizationFailedException
+     * @throws InvalidCursorException
+     */
+    public QuestionPage getQuestionSummaryPage(String accessToken, String cursor, Integer limit)
+            throws AuthorizationFailedException, InvalidCursorException {
+
+        checkQuestionListingAccess(accessToken);
+        QuestionPage page = readQuestionPage(cursor, limit);
+
+        List<Integer> questionIds = new ArrayList<Integer>(page.getQuestions().size());
+        for (QuestionDetails questionDetails : page.getQuestions()) {
+            questionIds.add(questionDetails.getId());
+        }
+        Map<Integer, AnswerSummary> answerSummaries = new HashMap<Integer, AnswerSummary>();
+        for (AnswerSummary answerSummary : answerDao.getAnswerSummaries(questionIds)) {
+            answerSummaries.put(answerSummary.getQuestionId(), answerSummary);
+        }
+        return new QuestionPage(page.getQuestions(), page.getNextCursor(), answerSummaries);
+    }
+
+    /**
+     * This method is used to handle business rules to search the questions in quora application whose
+     * content or one of whose answers contains the words of the given text, one page at a time and
+     * best match first. The page size is capped, and the returned page carries the cursor of the next
+     * page
+     *
+     * @param accessToken
+     * @param text searched text
+     * @param cursor cursor returned with the previous page, or null for the first page
+     * @param limit requested page size, or null for the default page size
+     * @return
+     * @throws AuthorizationFailedException
+     * @throws InvalidCursorException
+     */
+    public QuestionPage searchQuestions(String accessToken, String text, String cursor, Integer limit)
+            throws AuthorizationFailedException, InvalidCursorException {
+
+        checkQuestionListingAccess(accessToken);
+
+        final int pageSize =
+                limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        final SearchCursor after = cursor == null ? null : SearchCursor.decode(cursor);
+
+        // One extra row is fetched to find out whether there is a next page
+        List<QuestionMatch> matches =
+                questionDao.searchQuestions(
+                        text,
+                        after == null ? null : after.getRank(),
+                        after == null ? null : after.getId(),
+                        pageSize + 1);
+        String nextCursor = null;
+        if (matches.size() > pageSize) {
+            matches = matches.subList(0, pageSize);
+            QuestionMatch last = matches.get(pageSize - 1);
+            nextCursor = new SearchCursor(last.getRank(), last.getQuestion().getId()).encode();
+        }
+        List<QuestionDetails> questions = new ArrayList<QuestionDetails>(matches.size());
+        for (QuestionMatch match : matches) {
+            questions.add(match.getQuestion());
+        }
+        return new QuestionPage(questions, nextCursor);
+    }
+
+    /**
+     * This method reads a page of the questions, newest first, and the cursor of the next page
+     *
+     * @param cursor
+     * @param limit
+     * @return
+     * @throws InvalidCursorException
+     */
+    private QuestionPage readQuestionPage(String cursor, Integer limit) throws InvalidCursorException {
+
+        final int pageSize =
+                limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        final QuestionCursor after = cursor == null ? null : QuestionCursor.decode(cursor);
+
+        // One extra row is fetched to find out whether there is a next page
+        List<QuestionDetails> questions =
+                questionDao.getQuestionsPage(
+                        after == null ? null : after.getDate(),
+                        after == null ? null : after.getId(),
+                        pageSize + 1);
+        String nextCursor = null;
+        if (questions.size() > pageSize) {
+            questions = questions.subList(0, pageSize);
+            QuestionDetails last = questions.get(pageSize - 1);
+            nextCursor = new QuestionCursor(last.getDate(), last.getId()).encode();
+        }
+        return new QuestionPage(questions, nextCursor);
+    }
+
+    /**
+     * This method is used to handle business rules to get all the questions in quora application,
+     * newest first, for streaming them to the client. The access token is checked right away; the
+     * questions are read lazily in batches while the returned iterable is consumed
+     *
+     * @param accessToken
+     * @return
+     * @throws AuthorizationFailedException
+     */
+    public Iterable<QuestionDetails> getAllQuestionsInBatches(String accessToken)
+            throws AuthorizationFailedException {
+
+        checkQuestionListingAccess(accessToken);
+
+        return new BatchedIterable<QuestionDetails>(streamingFetchSize) {
+            @Override
+            protected List<QuestionDetails> fetchBatch(QuestionDetails last, int batchSize) {
+                return questionDao.getQuestionsPage(
+                        last == null ? null : last.getDate(), last == null ? null : last.getId(), batchSize);
+            }
+        };
+    }
+
+    /**
+     * This method is used to handle business rules to get the current version of the question
+     * listing, which tells a client whether the questions it got before have changed without reading
+     * them again
      *
      * @param accessToken
      * @return
      * @throws AuthorizationFailedException
      */
-    public List<QuestionsEntity> getQuestionList(String accessToken)
+    public ListingVersion getQuestionsVersion(String accessToken) throws AuthorizationFailedException {
+        checkQuestionListingAccess(accessToken);
+        return listingVersions.getQuestionsVersion();
+    }
+
+    /**
+     * This method is used to handle business rules to get the current version of the question
+     * listing in summary mode, which also changes whenever an answer is posted, edited or deleted
+     *
+     * @param accessToken
+     * @return
+     * @throws AuthorizationFailedException
+     */
+    public ListingVersion getQuestionSummariesVersion(String accessToken)
             throws AuthorizationFailedException {
+        checkQuestionListingAccess(accessToken);
+        return listingVersions.getQuestionSummariesVersion();
+    }
 
-        UserAuthTokenEntity tokenEntity = userDao.getAuthToken(accessToken);
+    /**
+     * This method checks that the user may list the questions
+     *
+     * @param accessToken
+     * @throws AuthorizationFailedException
+     */
+    private void checkQuestionListingAccess(String accessToken) throws AuthorizationFailedException {
 
-        if (tokenEntity == null) {
+        UserSession userSession = userSessionCache.getSession(accessToken);
+
+        if (userSession == null) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_001.getCode(), GenericExceptionCode.ATHR_001.getDescription());
-        } else if (tokenEntity.getLogoutAt() != null
-                && tokenEntity.getLogoutAt().isBefore(ZonedDateTime.now())) {
+        } else if (userSession.getLogoutAt() != null
+                && userSession.getLogoutAt().isBefore(ZonedDateTime.now())) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_002_QUES_GET.getCode(),
                     GenericExceptionCode.ATHR_002_QUES_GET.getDescription());
         }
-
-        return questionDao.getAllQuestions();
     }
 
     /**
@@ -142,13 +342,13 @@ public class QuestionBusinessService {
     public void deleteQuestionByUuid(String uuid, String accessToken)
             throws AuthorizationFailedException, InvalidQuestionException {
 
-        UserAuthTokenEntity userAuthTokenEntity = userDao.getAuthToken(accessToken);
-        if (userAuthTokenEntity == null) {
+        UserSession userSession = userSessionCache.getSession(accessToken);
+        if (userSession == null) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_001.getCode(), GenericExceptionCode.ATHR_001.getDescription());
         }
 
-        if (hasUserSignedOut(userAuthTokenEntity.getLogoutAt())) {
+        if (hasUserSignedOut(userSession.getLogoutAt())) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_002_QUES_DELETE.getCode(),
                     GenericExceptionCode.ATHR_002_QUES_DELETE.getDescription());
@@ -159,16 +359,17 @@ public class QuestionBusinessService {
             throw new InvalidQuestionException(
                     GenericExceptionCode.QUES_001.getCode(), GenericExceptionCode.QUES_001.getDescription());
         }
-        UserEntity loggedInUser = userAuthTokenEntity.getUsers();
         UserEntity questionOwner = questionToDelete.getUserEntity();
 
-        if (!questionOwner.getUuid().equals(loggedInUser.getUuid())
-                && !("admin").equals(loggedInUser.getRole())) {
+        if (!questionOwner.getUuid().equals(userSession.getUserUuid())
+                && !("admin").equals(userSession.getRole())) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_003_QUES_DELETE.getCode(),
                     GenericExceptionCode.ATHR_003_QUES_DELETE.getDescription());
         }
         questionDao.deleteQuestionByUuid(questionToDelete);
+        listingVersions.questionsChanged();
+        listingVersions.answersChanged(questionToDelete.getUuid());
     }
 
     /**
@@ -190,15 +391,15 @@ public class QuestionBusinessService {
      * @throws AuthorizationFailedException
      * @throws UserNotFoundException
      */
-    public List<QuestionsEntity> getQuestionsForUserId(String userUuid, String accessToken)
+    public List<QuestionDetails> getQuestionsForUserId(String userUuid, String accessToken)
             throws AuthorizationFailedException, UserNotFoundException {
 
-        UserAuthTokenEntity userAuthTokenEntity = userDao.getAuthToken(accessToken);
-        if (userAuthTokenEntity == null) {
+        UserSession userSession = userSessionCache.getSession(accessToken);
+        if (userSession == null) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_001.getCode(), GenericExceptionCode.ATHR_001.getDescription());
         }
-        if (hasUserSignedOut(userAuthTokenEntity.getLogoutAt())) {
+        if (hasUserSignedOut(userSession.getLogoutAt())) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_002_QUES_GET.getCode(),
                     GenericExceptionCode.ATHR_002_QUES_GET.getDescription());
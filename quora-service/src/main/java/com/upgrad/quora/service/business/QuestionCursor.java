@@ -0,0 +1,71 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.GenericExceptionCode;
+import com.upgrad.quora.service.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of a question in the (date, id) descending order of the question listing. It is handed
+ * to clients as an opaque string and the next page starts strictly after it. The date keeps its full
+ * precision, otherwise questions created within the same millisecond could be skipped.
+ */
+public final class QuestionCursor {
+
+    private final ZonedDateTime date;
+    private final Integer id;
+
+    public QuestionCursor(final ZonedDateTime date, final Integer id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public ZonedDateTime getDate() {
+        return date;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * @return opaque, url safe representation of this cursor
+     */
+    public String encode() {
+        final String value = date.toInstant().toString() + "," + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor opaque cursor previously returned by {@link #encode()}
+     * @return decoded cursor
+     * @throws InvalidCursorException if the cursor was not produced by {@link #encode()}
+     */
+    public static QuestionCursor decode(final String cursor) throws InvalidCursorException {
+        try {
+            final String value =
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final String[] parts = value.split(",");
+            if (parts.length != 2) {
+                throw invalidCursor();
+            }
+            return new QuestionCursor(
+                    ZonedDateTime.ofInstant(Instant.parse(parts[0]), ZoneId.systemDefault()),
+                    Integer.valueOf(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static InvalidCursorException invalidCursor() {
+        return new InvalidCursorException(
+                GenericExceptionCode.PAGE_001.getCode(), GenericExceptionCode.PAGE_001.getDescription());
+    }
+}
@@ -0,0 +1,51 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.projection.AnswerSummary;
+import com.upgrad.quora.service.projection.QuestionDetails;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of the question listing together with the cursor of the next page, which is null on the
+ * last page. In summary mode the page also carries the answer summaries of its questions, by question
+ * id.
+ */
+public final class QuestionPage {
+
+    private final List<QuestionDetails> questions;
+    private final String nextCursor;
+    private final Map<Integer, AnswerSummary> answerSummaries;
+
+    public QuestionPage(final List<QuestionDetails> questions, final String nextCursor) {
+        this(questions, nextCursor, Collections.<Integer, AnswerSummary>emptyMap());
+    }
+
+    public QuestionPage(
+            final List<QuestionDetails> questions,
+            final String nextCursor,
+            final Map<Integer, AnswerSummary> answerSummaries) {
+        this.questions = questions;
+        this.nextCursor = nextCursor;
+        this.answerSummaries = answerSummaries;
+    }
+
+    public List<QuestionDetails> getQuestions() {
+        return questions;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @param question one of the questions of the page
+     * @return the answer summary of the question, NO_ANSWERS when it has no answer or when the page is
+     *     not in summary mode
+     */
+    public AnswerSummary getAnswerSummary(final QuestionDetails question) {
+        final AnswerSummary answerSummary = answerSummaries.get(question.getId());
+        return answerSummary == null ? AnswerSummary.NO_ANSWERS : answerSummary;
+    }
+}
@@ -0,0 +1,66 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.GenericExceptionCode;
+import com.upgrad.quora.service.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a question in the (rank, id) descending order of the question search results. It is
+ * handed to clients as an opaque string and the next page starts strictly after it. The rank is kept
+ * as the exact float computed by the database, so that it compares equal when the search is run again.
+ */
+public final class SearchCursor {
+
+    private final float rank;
+    private final Integer id;
+
+    public SearchCursor(final float rank, final Integer id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * @return opaque, url safe representation of this cursor
+     */
+    public String encode() {
+        final String value = Integer.toHexString(Float.floatToIntBits(rank)) + "," + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor opaque cursor previously returned by {@link #encode()}
+     * @return decoded cursor
+     * @throws InvalidCursorException if the cursor was not produced by {@link #encode()}
+     */
+    public static SearchCursor decode(final String cursor) throws InvalidCursorException {
+        try {
+            final String value =
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final String[] parts = value.split(",");
+            if (parts.length != 2) {
+                throw invalidCursor();
+            }
+            return new SearchCursor(
+                    Float.intBitsToFloat(Integer.parseUnsignedInt(parts[0], 16)), Integer.valueOf(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static InvalidCursorException invalidCursor() {
+        return new InvalidCursorException(
+                GenericExceptionCode.PAGE_001.getCode(), GenericExceptionCode.PAGE_001.getDescription());
+    }
+}
@@ -1,63 +1,142 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.cache.RevokedTokenRegistry;
+import com.upgrad.quora.service.cache.UserSession;
+import com.upgrad.quora.service.cache.UserProfileCache;
+import com.upgrad.quora.service.cache.UserSessionCache;
 import com.upgrad.quora.service.common.GenericExceptionCode;
+import com.upgrad.quora.service.dao.QueryStatistics;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.event.UserDeletedEvent;
 import com.upgrad.quora.service.exception.*;
+import com.upgrad.quora.service.projection.QueryStatistic;
+import com.upgrad.quora.service.projection.UserProfile;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Statement;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 @Transactional(propagation = Propagation.REQUIRED)
 public class UserBusinessService {
 
+    private static final int ACCESS_TOKEN_VALIDITY_HOURS = 5;
+
     @Autowired private UserDao userDao;
 
     @Autowired private PasswordCryptographyProvider passwordCryptographyProvider;
 
+    @Autowired private UserSessionCache userSessionCache;
+
+    @Autowired private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired private RevokedTokenRegistry revokedTokenRegistry;
+
+    /**
+     * Whether signUp looks for an existing username or email before hashing the password and
+     * inserting the user. Either way the unique constraints of the USERS table reject duplicates.
+     */
+    @Value("${quora.signup.check-before-insert:false}")
+    private boolean checkBeforeInsert;
+
+    @Autowired private BulkPasswordHasher bulkPasswordHasher;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Autowired private QueryStatistics queryStatistics;
+
+    @Autowired private UserProfileCache userProfileCache;
+
+    @Autowired private ApplicationEventPublisher applicationEventPublisher;
+
+    @Value("${quora.user-import.batch-size:500}")
+    private int importBatchSize;
+
     /**
      * This method takes a UserEntity object as a parameter and encrypts the password of the user
-     * then, passes it to the DAO layer to persist the user in the Database. Checks whether the
-     * username or email provided by the user already exists in the Database & accordingly throws
-     * Exceptions
+     * then, passes it to the DAO layer to persist the user in the Database. A username or email that
+     * already exists in the Database is reported by the unique constraints of the USERS table on
+     * insert, and accordingly throws Exceptions. When quora.signup.check-before-insert is set, both
+     * are first looked up in a single query, so that no password is hashed for a duplicate
      *
      * @param userEntity
      * @return User Entity persisted in the DB
      * @throws SignUpRestrictedException
      */
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = SignUpRestrictedException.class)
     public UserEntity signUp(UserEntity userEntity) throws SignUpRestrictedException {
 
-        // Check if the user exists for given username
-        UserEntity existingUserEntity = userDao.findUserByUserName(userEntity.getUsername());
-        if (existingUserEntity != null) {
-            throw new SignUpRestrictedException(
-                    GenericExceptionCode.SGR_001.getCode(), GenericExceptionCode.SGR_001.getDescription());
-        }
-
-        // Check if the user exists for given email
-        existingUserEntity = userDao.findUserByEmail(userEntity.getEmail());
-        if (existingUserEntity != null) {
-            throw new SignUpRestrictedException(
-                    GenericExceptionCode.SGR_002.getCode(), GenericExceptionCode.SGR_002.getDescription());
+        if (checkBeforeInsert) {
+            // Check if the user exists for given username or email
+            List<String> existingUsernames =
+                    userDao.findUsernamesByUsernameOrEmail(userEntity.getUsername(), userEntity.getEmail());
+            if (existingUsernames.contains(userEntity.getUsername())) {
+                throw new SignUpRestrictedException(
+                        GenericExceptionCode.SGR_001.getCode(), GenericExceptionCode.SGR_001.getDescription());
+            }
+            if (!existingUsernames.isEmpty()) {
+                throw new SignUpRestrictedException(
+                        GenericExceptionCode.SGR_002.getCode(), GenericExceptionCode.SGR_002.getDescription());
+            }
         }
 
         String[] encryptedText = passwordCryptographyProvider.encrypt(userEntity.getPassword());
         userEntity.setSalt(encryptedText[0]);
         userEntity.setPassword(encryptedText[1]);
 
-        return userDao.createUser(userEntity);
+        try {
+            return userDao.createUser(userEntity);
+        } catch (DataIntegrityViolationException e) {
+            throw signUpRestricted(e);
+        }
     }
 
     /**
-     * This method takes the username and the password decrypted by the Controller, encrypts the
-     * password using the encrypt method in the Password Cryptography Provider class and then verifies
-     * it with the existing password in the DB. Generates an JWT Token (Access Token),issue time &
+     * This method maps the violation of a unique constraint of the USERS table on insert to the
+     * matching SignUpRestrictedException: SGR-001 for the username, SGR-002 for the email
+     *
+     * @param e
+     * @return SignUpRestrictedException to throw
+     * @throws DataIntegrityViolationException if another constraint is violated
+     */
+    private static SignUpRestrictedException signUpRestricted(final DataIntegrityViolationException e) {
+        String constraintName = null;
+        if (e.getCause() instanceof ConstraintViolationException) {
+            constraintName = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        }
+        if (constraintName != null && constraintName.toLowerCase().contains("username")) {
+            return new SignUpRestrictedException(
+                    GenericExceptionCode.SGR_001.getCode(), GenericExceptionCode.SGR_001.getDescription());
+        }
+        if (constraintName != null && constraintName.toLowerCase().contains("email")) {
+            return new SignUpRestrictedException(
+                    GenericExceptionCode.SGR_002.getCode(), GenericExceptionCode.SGR_002.getDescription());
+        }
+        throw e;
+    }
+
+    /**
+     * This method takes the username and the password decrypted by the Controller and verifies the
+     * password against the existing password in the DB using the Password Cryptography Provider
+     * class. A password stored with older hashing parameters is hashed again with the current ones
+     * and updated in the DB. Generates an JWT Token (Access Token),issue time &
      * Expiry time using the Jwt Token Provider class and generates a UserAuthToken entity using the
      * corresponding fields and passes it to the DAO layer to persist in the Database
      *
@@ -74,15 +153,19 @@ public class UserBusinessService {
         // no null check here . vimp to do null check on objects before using them
         // encrypt and validate password
         if (userEntity != null) {
-            String encryptedPassword =
-                    passwordCryptographyProvider.encrypt(password, userEntity.getSalt());
-            if (encryptedPassword.equals(userEntity.getPassword())) {
+            if (passwordCryptographyProvider.matches(password, userEntity.getPassword(), userEntity.getSalt())) {
+                // the raw password is known only now, upgrade the stored hash to the current parameters
+                if (passwordCryptographyProvider.needsRehash(userEntity.getPassword())) {
+                    String[] encryptedText = passwordCryptographyProvider.encrypt(password);
+                    userEntity.setSalt(encryptedText[0]);
+                    userEntity.setPassword(encryptedText[1]);
+                }
                 // generate and persist token
                 final ZonedDateTime issuedTime = ZonedDateTime.now();
-                final ZonedDateTime expiryTime = ZonedDateTime.now().plusHours(5);
-                JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(password);
+                final ZonedDateTime expiryTime = ZonedDateTime.now().plusHours(ACCESS_TOKEN_VALIDITY_HOURS);
                 String accessToken =
-                        jwtTokenProvider.generateToken(userEntity.getUuid(), issuedTime, expiryTime);
+                        jwtTokenProvider.generateToken(
+                                userEntity.getUuid(), userEntity.getId(), userEntity.getRole(), issuedTime, expiryTime);
 
                 UserAuthTokenEntity userAuthTokenEntity = new UserAuthTokenEntity();
                 userAuthTokenEntity.setAccess_token(accessToken);
@@ -106,7 +189,9 @@ public class UserBusinessService {
 
     /**
      * This method updates the Log-out time of the user when he Signs out from the application post verification that the
-     * Access token of the user exists in the Database and matches with access token entered by the Signed in user
+     * Access token of the user exists in the Database and matches with access token entered by the Signed in user.
+     * The cached session of the access token is invalidated and the token is revoked once the signout commits, so that
+     * it is rejected straight away
      * @param access_token
      * @return User Auth Token Entity object
      * @throws SignOutRestrictedException
@@ -119,6 +204,8 @@ public class UserBusinessService {
         if (userAuthToken != null && access_token.equals(userAuthToken.getAccess_token())) {
             final ZonedDateTime now = ZonedDateTime.now();
             userAuthToken.setLogoutAt(now); // Setting the Logout Time of the user
+            userSessionCache.invalidate(access_token);
+            revokedTokenRegistry.revoke(access_token, userAuthToken.getExpiresAt());
             return userAuthToken;
         } else {
             throw new SignOutRestrictedException(
@@ -142,71 +229,233 @@ public class UserBusinessService {
     public UserEntity deleteUserByUuid(final String userUuid, final String authorization)
             throws AuthorizationFailedException, UserNotFoundException {
 
-        UserAuthTokenEntity userAuthTokenEntity = userDao.getAuthToken(authorization);
+        authorizeAdmin(authorization);
+
+        // Check if the user exists for the given uuid
+        UserEntity userToDelete = userDao.getUserbyUuid(userUuid);
+
+        if (userToDelete == null) {
+            throw new UserNotFoundException(
+                    GenericExceptionCode.USR_001.getCode(), GenericExceptionCode.USR_001.getDescription());
+        }
+
+        // Sessions of the deleted user must not outlive the user itself
+        userSessionCache.invalidateUser(userToDelete.getUuid());
+        revokedTokenRegistry.revokeUser(
+                userToDelete.getUuid(), ZonedDateTime.now().plusHours(ACCESS_TOKEN_VALIDITY_HOURS));
+        applicationEventPublisher.publishEvent(new UserDeletedEvent(userToDelete.getUuid()));
+        return userDao.deleteUser(userToDelete);
+    }
+
+    /**
+     * This method returns the statistics of the named queries run by the DAOs since the application
+     * started, to a signed in admin
+     *
+     * @param authorization
+     * @return statistics of every query, the longest running in total first
+     * @throws AuthorizationFailedException
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<QueryStatistic> getQueryStatistics(final String authorization)
+            throws AuthorizationFailedException {
+        authorizeAdmin(authorization);
+        return queryStatistics.getStatistics();
+    }
+
+    /**
+     * This method checks that the caller is a signed in admin allowed to import users, so that the
+     * body of an import is only read for an admin
+     *
+     * @param authorization
+     * @throws AuthorizationFailedException
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public void authorizeImport(final String authorization) throws AuthorizationFailedException {
+        authorizeAdmin(authorization);
+    }
+
+    /**
+     * This method registers users in bulk on behalf of a signed in admin. Every row is registered on
+     * its own: a row missing a required field, or whose username or email is taken (in the Database or
+     * by an earlier row), is rejected without affecting the others. The rows are processed in batches
+     * of quora.user-import.batch-size: the conflicts of a batch are looked up in one query, its
+     * passwords are hashed in parallel outside of any transaction, then its users are inserted in one
+     * JDBC batch and committed
+     *
+     * @param authorization
+     * @param userEntities users to register, their password in clear
+     * @return outcome of every row, in the same order
+     * @throws AuthorizationFailedException
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<UserImportOutcome> importUsers(final String authorization, final List<UserEntity> userEntities)
+            throws AuthorizationFailedException {
+        authorizeAdmin(authorization);
+
+        final UserImportOutcome[] outcomes = new UserImportOutcome[userEntities.size()];
+        final Set<String> usernames = new HashSet<>();
+        final Set<String> emails = new HashSet<>();
+        final List<Integer> valid = new ArrayList<>(userEntities.size());
+        for (int i = 0; i < userEntities.size(); i++) {
+            UserEntity userEntity = userEntities.get(i);
+            if (userEntity.getFirstName() == null || userEntity.getLastName() == null
+                    || userEntity.getUsername() == null || userEntity.getEmail() == null
+                    || userEntity.getPassword() == null) {
+                outcomes[i] = UserImportOutcome.rejected(i + 1, GenericExceptionCode.IMP_001);
+            } else if (!usernames.add(userEntity.getUsername())) {
+                outcomes[i] = UserImportOutcome.rejected(i + 1, GenericExceptionCode.SGR_001);
+            } else if (!emails.add(userEntity.getEmail())) {
+                outcomes[i] = UserImportOutcome.rejected(i + 1, GenericExceptionCode.SGR_002);
+            } else {
+                valid.add(i);
+            }
+        }
+
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < valid.size(); from += importBatchSize) {
+            final List<Integer> batch = valid.subList(from, Math.min(valid.size(), from + importBatchSize));
+            importBatch(userEntities, batch, outcomes, transactionTemplate);
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    private void importBatch(
+            final List<UserEntity> userEntities,
+            final List<Integer> batch,
+            final UserImportOutcome[] outcomes,
+            final TransactionTemplate transactionTemplate) {
+        // reject the rows conflicting with existing users before paying for their hash
+        final List<Integer> absent = rejectExisting(userEntities, batch, outcomes, transactionTemplate);
+
+        final List<String> passwords = new ArrayList<>(absent.size());
+        for (Integer i : absent) {
+            passwords.add(userEntities.get(i).getPassword());
+        }
+        final List<String[]> encrypted = bulkPasswordHasher.encryptAll(passwords);
+        final List<UserEntity> toInsert = new ArrayList<>(absent.size());
+        for (int j = 0; j < absent.size(); j++) {
+            UserEntity userEntity = userEntities.get(absent.get(j));
+            userEntity.setSalt(encrypted.get(j)[0]);
+            userEntity.setPassword(encrypted.get(j)[1]);
+            toInsert.add(userEntity);
+        }
+
+        final int[] counts = transactionTemplate.execute(status -> userDao.createUsersIfAbsent(toInsert));
+        final List<Integer> skipped = new ArrayList<>();
+        for (int j = 0; j < absent.size(); j++) {
+            int i = absent.get(j);
+            if (counts[j] > 0 || counts[j] == Statement.SUCCESS_NO_INFO) {
+                outcomes[i] = UserImportOutcome.registered(i + 1, userEntities.get(i).getUuid());
+            } else {
+                skipped.add(i);
+            }
+        }
+        // users registered concurrently since the lookup above, rare enough to be looked up again
+        if (!skipped.isEmpty()) {
+            for (Integer i : rejectExisting(userEntities, skipped, outcomes, transactionTemplate)) {
+                // the conflicting user is gone already, the row may simply be imported again
+                outcomes[i] = UserImportOutcome.rejected(i + 1, GenericExceptionCode.SGR_001);
+            }
+        }
+    }
+
+    /**
+     * This method rejects the rows whose username or email is already taken in the Database
+     *
+     * @return the rows that are not rejected
+     */
+    private List<Integer> rejectExisting(
+            final List<UserEntity> userEntities,
+            final List<Integer> rows,
+            final UserImportOutcome[] outcomes,
+            final TransactionTemplate transactionTemplate) {
+        final List<String> usernames = new ArrayList<>(rows.size());
+        final List<String> emails = new ArrayList<>(rows.size());
+        for (Integer i : rows) {
+            usernames.add(userEntities.get(i).getUsername());
+            emails.add(userEntities.get(i).getEmail());
+        }
+        final Set<String> takenUsernames = new HashSet<>();
+        final Set<String> takenEmails = new HashSet<>();
+        for (Object[] existing : transactionTemplate.execute(status -> userDao.findUsernamesAndEmails(usernames, emails))) {
+            takenUsernames.add((String) existing[0]);
+            takenEmails.add((String) existing[1]);
+        }
+
+        final List<Integer> absent = new ArrayList<>(rows.size());
+        for (Integer i : rows) {
+            if (takenUsernames.contains(userEntities.get(i).getUsername())) {
+                outcomes[i] = UserImportOutcome.rejected(i + 1, GenericExceptionCode.SGR_001);
+            } else if (takenEmails.contains(userEntities.get(i).getEmail())) {
+                outcomes[i] = UserImportOutcome.rejected(i + 1, GenericExceptionCode.SGR_002);
+            } else {
+                absent.add(i);
+            }
+        }
+        return absent;
+    }
+
+    /**
+     * This method checks that the access token belongs to a signed in admin
+     *
+     * @param authorization
+     * @throws AuthorizationFailedException
+     */
+    private void authorizeAdmin(final String authorization) throws AuthorizationFailedException {
+        UserSession userSession = userSessionCache.getSession(authorization);
         // If accessToken does not exist in the Database,̥throws
         // AuthorizationFailedException
-        if (userAuthTokenEntity == null) {
+        if (userSession == null) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_001.getCode(), GenericExceptionCode.ATHR_001.getDescription());
         }
 
         // Checking user signed out condition
-        final ZonedDateTime loggedOutTime = userAuthTokenEntity.getLogoutAt();
+        final ZonedDateTime loggedOutTime = userSession.getLogoutAt();
         if (hasUserSignedOut(loggedOutTime)) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_002_USER_DELETE.getCode(),
                     GenericExceptionCode.ATHR_002_USER_DELETE.getDescription());
         }
-        UserEntity user = userAuthTokenEntity.getUsers();
-        if (("nonadmin").equals(user.getRole())) {
+        if (("nonadmin").equals(userSession.getRole())) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_003_ADMIN.getCode(),
                     GenericExceptionCode.ATHR_003_ADMIN.getDescription());
         }
-
-        // Check if the user exists for the given uuid
-        UserEntity userToDelete = userDao.getUserbyUuid(userUuid);
-
-        if (userToDelete == null) {
-            throw new UserNotFoundException(
-                    GenericExceptionCode.USR_001.getCode(), GenericExceptionCode.USR_001.getDescription());
-        }
-
-        return userDao.deleteUser(userToDelete);
     }
 
     /**
      * This method is used to fetch all the details of a signed in and Authorized user. It takes the
      * Access Token of the Logged-in User and the User UUID from the Controller Method. It fetches the
-     * User Details from the DAO class and returns it to the Controller method
+     * User Details through the profile cache and returns it to the Controller method
      *
      * @param userUuid
      * @param access_token
-     * @return Details of the User in User Entity object
+     * @return Details of the User in User Profile object
      * @throws AuthorizationFailedException
      * @throws UserNotFoundException
      */
-    public UserEntity getUserDetails(final String userUuid, final String access_token)
+    public UserProfile getUserDetails(final String userUuid, final String access_token)
             throws AuthorizationFailedException, UserNotFoundException {
-        final UserAuthTokenEntity userAuthToken = userDao.getAuthToken(access_token);
-        final UserEntity userEntity = userDao.getUserbyUuid(userUuid);
+        final UserSession userSession = userSessionCache.getSession(access_token);
+        final UserProfile userProfile = userProfileCache.getProfile(userUuid);
         // If accessToken does not exist in the Database,̥throws
         // AuthorizationFailedException
-        if (userAuthToken == null) {
+        if (userSession == null) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_001.getCode(), GenericExceptionCode.ATHR_001.getDescription());
         }
         // If user UUID does not exist in the Database,throws UserNotFoundException
-        else if (userEntity == null) {
+        else if (userProfile == null) {
             throw new UserNotFoundException(
                     GenericExceptionCode.USR_001.getCode(), GenericExceptionCode.USR_001.getDescription());
         }
         // Checking if user has signed out, then throws AuthorizationFailedException
-        else if (hasUserSignedOut(userAuthToken.getLogoutAt())) {
+        else if (hasUserSignedOut(userSession.getLogoutAt())) {
             throw new AuthorizationFailedException(
                     GenericExceptionCode.ATHR_002_GET.getCode(),
                     GenericExceptionCode.ATHR_002_GET.getDescription());
-        } else return userEntity;
+        } else return userProfile;
     }
 
     /**
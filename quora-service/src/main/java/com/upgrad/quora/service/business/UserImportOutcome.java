@@ -0,0 +1,53 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.GenericExceptionCode;
+
+/**
+ * Outcome of one row of a bulk user import: the uuid of the registered user, or the error code and
+ * message of a rejected row.
+ */
+public final class UserImportOutcome {
+
+    private final int row;
+    private final String uuid;
+    private final String code;
+    private final String message;
+
+    private UserImportOutcome(final int row, final String uuid, final String code, final String message) {
+        this.row = row;
+        this.uuid = uuid;
+        this.code = code;
+        this.message = message;
+    }
+
+    public static UserImportOutcome registered(final int row, final String uuid) {
+        return new UserImportOutcome(row, uuid, null, null);
+    }
+
+    public static UserImportOutcome rejected(final int row, final GenericExceptionCode exceptionCode) {
+        return new UserImportOutcome(row, null, exceptionCode.getCode(), exceptionCode.getDescription());
+    }
+
+    /**
+     * @return position of the row in the import, starting at 1
+     */
+    public int getRow() {
+        return row;
+    }
+
+    public boolean isRegistered() {
+        return uuid != null;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
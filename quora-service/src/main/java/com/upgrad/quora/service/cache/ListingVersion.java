@@ -0,0 +1,24 @@
+package com.upgrad.quora.service.cache;
+
+/**
+ * Version of a listing as tracked by ListingVersions: an opaque tag, used as ETag, and the time of the
+ * change that produced it, used as Last-Modified.
+ */
+public final class ListingVersion {
+
+    private final String tag;
+    private final long lastModified;
+
+    public ListingVersion(final String tag, final long lastModified) {
+        this.tag = tag;
+        this.lastModified = lastModified;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+}
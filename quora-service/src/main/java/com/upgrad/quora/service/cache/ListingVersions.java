@@ -0,0 +1,222 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.dao.ListingVersionDao;
+import com.upgrad.quora.service.event.UserDeletedEvent;
+import com.upgrad.quora.service.projection.ListingVersionRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versions of the question listing, with and without answer summaries, and of the answer listing of
+ * every question, so that a client polling a listing that has not changed can be answered
+ * NOT_MODIFIED without reading the database.
+ *
+ * <p>The versions are shared by all the instances through the LISTING_VERSION table and served from
+ * a local copy. Every create, edit and delete that changes a listing bumps its version once the change
+ * is committed, in a short transaction of its own, so that a version is never handed out with the
+ * rows as they were before it and the writers do not queue on the version rows. The new version is
+ * applied to the local copy straight away; the versions bumped by the other instances are loaded
+ * every refresh-ms, reading back refresh-overlap-ms before the last refresh for the bumps that
+ * committed late. A listing not in the local copy yet is read once from the table.
+ *
+ * <p>The local copy keeps the versions of the answer listings of the most recently used questions
+ * only. The answer listing of a question without a version of its own, or with an older one, has the
+ * version of the "answers" row, which is bumped whenever a user and with it any number of answers are
+ * deleted.
+ */
+@Component
+public class ListingVersions {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ListingVersions.class);
+
+    private static final String QUESTIONS = "questions";
+
+    private static final String QUESTION_SUMMARIES = "question-summaries";
+
+    private static final String ANSWERS = "answers";
+
+    private static final String ANSWERS_OF_QUESTION = ANSWERS + "/";
+
+    @Autowired private ListingVersionDao listingVersionDao;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final int maxListings;
+
+    private final long refreshOverlapMillis;
+
+    /** Versions by listing name, guarded by itself */
+    private final Map<String, ListingVersionRow> versions;
+
+    /** Start of the last refresh, guarded by this */
+    private ZonedDateTime lastRefreshAt = ZonedDateTime.now();
+
+    public ListingVersions(
+            @Value("${quora.listing-versions.max-questions:10000}") final int maxQuestions,
+            @Value("${quora.listing-versions.refresh-overlap-ms:60000}") final long refreshOverlapMillis) {
+        this.maxListings = maxQuestions + 3;
+        this.refreshOverlapMillis = refreshOverlapMillis;
+        this.versions =
+                new LinkedHashMap<String, ListingVersionRow>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, ListingVersionRow> eldest) {
+                        return size() > ListingVersions.this.maxListings;
+                    }
+                };
+    }
+
+    /**
+     * This method returns the current version of the question listing
+     *
+     * @return ListingVersion
+     */
+    public ListingVersion getQuestionsVersion() {
+        return toListingVersion(getVersion(QUESTIONS));
+    }
+
+    /**
+     * This method returns the current version of the question listing with the answer summaries
+     *
+     * @return ListingVersion
+     */
+    public ListingVersion getQuestionSummariesVersion() {
+        return toListingVersion(getVersion(QUESTION_SUMMARIES));
+    }
+
+    /**
+     * This method returns the current version of the answer listing of the given question
+     *
+     * @param questionUuid
+     * @return ListingVersion
+     */
+    public ListingVersion getAnswersVersion(final String questionUuid) {
+        final ListingVersionRow answersVersion = getVersion(ANSWERS);
+        final ListingVersionRow questionVersion = getVersion(ANSWERS_OF_QUESTION + questionUuid);
+        return toListingVersion(
+                questionVersion.getVersion() > answersVersion.getVersion() ? questionVersion : answersVersion);
+    }
+
+    /**
+     * This method bumps the version of the question listing, with and without the answer summaries,
+     * once the current transaction commits
+     */
+    public void questionsChanged() {
+        afterCommit(() -> bump(QUESTIONS, QUESTION_SUMMARIES));
+    }
+
+    /**
+     * This method bumps the version of the answer listing of the given question, and of the question
+     * listing with the answer summaries, once the current transaction commits
+     *
+     * @param questionUuid
+     */
+    public void answersChanged(final String questionUuid) {
+        afterCommit(() -> bump(QUESTION_SUMMARIES, ANSWERS_OF_QUESTION + questionUuid));
+    }
+
+    /**
+     * The questions and answers of a deleted user are deleted with it, so every listing may have
+     * changed
+     *
+     * @param userDeletedEvent
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(final UserDeletedEvent userDeletedEvent) {
+        bump(QUESTIONS, QUESTION_SUMMARIES, ANSWERS);
+    }
+
+    /**
+     * This method loads the versions bumped since the previous refresh, by this instance or any other
+     */
+    @Scheduled(
+            initialDelayString = "${quora.listing-versions.refresh-ms:5000}",
+            fixedDelayString = "${quora.listing-versions.refresh-ms:5000}")
+    public synchronized void refresh() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        mergeAll(listingVersionDao.findListingVersions(lastRefreshAt.minusNanos(refreshOverlapMillis * 1_000_000L)));
+        lastRefreshAt = now;
+    }
+
+    private ListingVersionRow getVersion(final String name) {
+        synchronized (versions) {
+            final ListingVersionRow version = versions.get(name);
+            if (version != null) {
+                return version;
+            }
+        }
+        final ListingVersionRow version = listingVersionDao.getListingVersion(name);
+        // a listing without a version of its own is older than any version
+        return merge(version == null ? new ListingVersionRow(name, 0, null) : version);
+    }
+
+    /**
+     * This method keeps, for every listing, the greatest of its known versions, whatever the order
+     * in which they were read
+     */
+    private ListingVersionRow merge(final ListingVersionRow version) {
+        synchronized (versions) {
+            final ListingVersionRow known = versions.get(version.getName());
+            if (known != null && known.getVersion() >= version.getVersion()) {
+                return known;
+            }
+            versions.put(version.getName(), version);
+            return version;
+        }
+    }
+
+    private void mergeAll(final List<ListingVersionRow> rows) {
+        for (ListingVersionRow version : rows) {
+            merge(version);
+        }
+    }
+
+    private void bump(final String... names) {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            mergeAll(transactionTemplate.execute(
+                    status -> listingVersionDao.bumpListingVersions(ZonedDateTime.now(), names)));
+        } catch (DataAccessException | TransactionException e) {
+            // the change itself is committed, so it must not fail because of its version
+            LOGGER.error("Could not bump the versions of the listings {}", Arrays.toString(names), e);
+        }
+    }
+
+    private static ListingVersion toListingVersion(final ListingVersionRow version) {
+        return new ListingVersion(
+                Long.toString(version.getVersion(), 36),
+                version.getChangedAt() == null ? 0 : version.getChangedAt().toInstant().toEpochMilli());
+    }
+
+    private static void afterCommit(final Runnable bump) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCommit() {
+                        bump.run();
+                    }
+                });
+    }
+}
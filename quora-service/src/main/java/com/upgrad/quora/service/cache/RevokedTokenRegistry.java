@@ -0,0 +1,176 @@
+package com.upgrad.quora.service.cache;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.projection.Revocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Set of JWT access tokens that must no longer be accepted although their signature and expiry are
+ * still valid, i.e. tokens of users who signed out and of users who were deleted. An entry is only
+ * kept until the token(s) it covers would have expired anyway, so the set stays small.
+ *
+ * <p>The set is held in memory but backed by the database: a signout sets USER_AUTH.LOGOUT_AT and a
+ * user deletion adds a REVOKED_USER row. The set is loaded from both at startup and every
+ * refresh-ms afterwards, so revocations survive a restart and reach the other instances within one
+ * refresh. Each refresh reads the revocations since the previous one, minus refresh-overlap-ms for
+ * the transactions that committed late.
+ */
+@Component
+public class RevokedTokenRegistry {
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private final Map<String, UserRevocation> revokedUsers = new ConcurrentHashMap<>();
+
+    @Autowired private UserDao userDao;
+
+    private final long refreshOverlapMillis;
+
+    /** Start of the last refresh, guarded by this */
+    private ZonedDateTime lastRefreshAt;
+
+    public RevokedTokenRegistry(
+            @Value("${quora.revoked-tokens.refresh-overlap-ms:60000}") final long refreshOverlapMillis) {
+        this.refreshOverlapMillis = refreshOverlapMillis;
+    }
+
+    /**
+     * This method revokes a single access token until its expiry time, once the current transaction
+     * commits, so that a signout that rolls back leaves the token valid. The signout is stored in
+     * USER_AUTH by the caller
+     *
+     * @param accessToken
+     * @param expiresAt
+     */
+    public void revoke(final String accessToken, final ZonedDateTime expiresAt) {
+        afterCommit(
+                () -> {
+                    purgeExpired();
+                    revokedTokens.put(accessToken, expiresAt.toInstant().toEpochMilli());
+                });
+    }
+
+    /**
+     * This method revokes every access token of the given user that was issued up to now. The
+     * revocation is stored within the current transaction and applied to this registry once it
+     * commits. It is kept until the given time, after which those tokens have expired anyway
+     *
+     * @param userUuid
+     * @param until
+     */
+    public void revokeUser(final String userUuid, final ZonedDateTime until) {
+        final ZonedDateTime now = ZonedDateTime.now();
+        userDao.createUserRevocation(userUuid, now, until);
+        afterCommit(
+                () -> {
+                    purgeExpired();
+                    addUserRevocation(userUuid, now.toInstant().toEpochMilli(), until.toInstant().toEpochMilli());
+                });
+    }
+
+    /**
+     * This method checks whether the given, already verified, access token has been revoked
+     *
+     * @param accessToken
+     * @param decodedJWT
+     * @return true if the token must be rejected
+     */
+    public boolean isRevoked(final String accessToken, final DecodedJWT decodedJWT) {
+        return isRevoked(accessToken, decodedJWT.getAudience().get(0), decodedJWT.getIssuedAt());
+    }
+
+    /**
+     * This method checks whether the given access token, of the given user and issued at the given
+     * time, has been revoked
+     *
+     * @param accessToken
+     * @param userUuid
+     * @param issuedAt issue time of the token, or null if unknown
+     * @return true if the token must be rejected
+     */
+    public boolean isRevoked(final String accessToken, final String userUuid, final Date issuedAt) {
+        if (revokedTokens.containsKey(accessToken)) {
+            return true;
+        }
+        final UserRevocation revocation = revokedUsers.get(userUuid);
+        return revocation != null && (issuedAt == null || issuedAt.getTime() <= revocation.revokedAt);
+    }
+
+    /**
+     * This method loads the revocations stored in the database since the previous refresh, or all the
+     * unexpired ones on the first call
+     */
+    @PostConstruct
+    @Scheduled(
+            initialDelayString = "${quora.revoked-tokens.refresh-ms:5000}",
+            fixedDelayString = "${quora.revoked-tokens.refresh-ms:5000}")
+    public synchronized void refresh() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final ZonedDateTime since =
+                lastRefreshAt == null
+                        ? ZonedDateTime.ofInstant(Instant.EPOCH, ZoneId.systemDefault())
+                        : lastRefreshAt.minusNanos(refreshOverlapMillis * 1_000_000L);
+        purgeExpired();
+        for (Revocation revocation : userDao.findRevokedAuthTokens(since)) {
+            revokedTokens.put(revocation.getSubject(), revocation.getExpiresAt().toInstant().toEpochMilli());
+        }
+        for (Revocation revocation : userDao.findUserRevocations(since)) {
+            addUserRevocation(
+                    revocation.getSubject(),
+                    revocation.getRevokedAt().toInstant().toEpochMilli(),
+                    revocation.getExpiresAt().toInstant().toEpochMilli());
+        }
+        lastRefreshAt = now;
+    }
+
+    private void addUserRevocation(final String userUuid, final long revokedAt, final long until) {
+        revokedUsers.merge(
+                userUuid,
+                new UserRevocation(revokedAt, until),
+                (existing, added) -> existing.revokedAt >= added.revokedAt ? existing : added);
+    }
+
+    private static void afterCommit(final Runnable revocation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            revocation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCommit() {
+                        revocation.run();
+                    }
+                });
+    }
+
+    private void purgeExpired() {
+        final long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt < now);
+        revokedUsers.values().removeIf(revocation -> revocation.until < now);
+    }
+
+    private static final class UserRevocation {
+        private final long revokedAt;
+        private final long until;
+
+        private UserRevocation(final long revokedAt, final long until) {
+            this.revokedAt = revokedAt;
+            this.until = until;
+        }
+    }
+}
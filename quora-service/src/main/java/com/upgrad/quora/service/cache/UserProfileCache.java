@@ -0,0 +1,109 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.event.UserDeletedEvent;
+import com.upgrad.quora.service.projection.UserProfile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, read-through cache of the public user profiles keyed by user uuid, in front of
+ * UserDao.getUserbyUuid. Entries are evicted in least-recently-used order once the cache is full, and
+ * are reloaded from the database once their time-to-live has passed. A profile is evicted when its
+ * user is deleted, on the UserDeletedEvent once the deletion is committed. Users that do not exist
+ * are not cached, so a user created after a miss is found straight away. Every invalidation moves the
+ * cache to a new generation, and a profile loaded while the generation changed is returned but not
+ * cached, so that a load started before an invalidation cannot put the stale profile back.
+ */
+@Component
+public class UserProfileCache {
+
+    @Autowired private UserDao userDao;
+
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    private final Map<String, Entry> profiles;
+
+    /** Number of invalidations so far, guarded by profiles */
+    private long generation;
+
+    public UserProfileCache(
+            @Value("${quora.profile-cache.max-size:10000}") final int maxSize,
+            @Value("${quora.profile-cache.ttl-seconds:300}") final long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.profiles =
+                new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                        return size() > UserProfileCache.this.maxSize;
+                    }
+                };
+    }
+
+    /**
+     * This method returns the profile of the user with the given uuid, loading it from the database
+     * when it is not cached or its cache entry has expired
+     *
+     * @param userUuid
+     * @return UserProfile, or null if the user does not exist in the database
+     */
+    public UserProfile getProfile(final String userUuid) {
+        final long now = System.currentTimeMillis();
+        final long loadGeneration;
+        synchronized (profiles) {
+            Entry entry = profiles.get(userUuid);
+            if (entry != null && entry.expiresAtMillis > now) {
+                return entry.profile;
+            }
+            loadGeneration = generation;
+        }
+
+        final UserEntity userEntity = userDao.getUserbyUuid(userUuid);
+        if (userEntity == null) {
+            return null;
+        }
+        final UserProfile profile = new UserProfile(userEntity);
+        synchronized (profiles) {
+            if (generation == loadGeneration) {
+                profiles.put(userUuid, new Entry(profile, now + ttlMillis));
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * This method removes the profile of the given user
+     *
+     * @param userUuid
+     */
+    public void invalidate(final String userUuid) {
+        synchronized (profiles) {
+            generation++;
+            profiles.remove(userUuid);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(final UserDeletedEvent userDeletedEvent) {
+        invalidate(userDeletedEvent.getUserUuid());
+    }
+
+    private static final class Entry {
+        private final UserProfile profile;
+        private final long expiresAtMillis;
+
+        private Entry(final UserProfile profile, final long expiresAtMillis) {
+            this.profile = profile;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
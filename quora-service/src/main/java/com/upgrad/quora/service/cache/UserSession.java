@@ -0,0 +1,60 @@
+package com.upgrad.quora.service.cache;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Immutable snapshot of the fields of a USER_AUTH row (and its owning user) that the business
+ * services need in order to authorize a request. Instances are held by {@link UserSessionCache}
+ * so that they can be shared between request threads.
+ */
+public final class UserSession {
+
+    private final Integer userId;
+    private final String userUuid;
+    private final String role;
+    private final ZonedDateTime expiresAt;
+    private final ZonedDateTime logoutAt;
+    private final ZonedDateTime issuedAt;
+
+    public UserSession(
+            final Integer userId,
+            final String userUuid,
+            final String role,
+            final ZonedDateTime expiresAt,
+            final ZonedDateTime logoutAt,
+            final ZonedDateTime issuedAt) {
+        this.userId = userId;
+        this.userUuid = userUuid;
+        this.role = role;
+        this.expiresAt = expiresAt;
+        this.logoutAt = logoutAt;
+        this.issuedAt = issuedAt;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getUserUuid() {
+        return userUuid;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public ZonedDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public ZonedDateTime getLogoutAt() {
+        return logoutAt;
+    }
+
+    /**
+     * @return - issue time of the JWT access token, or null if the session was loaded from USER_AUTH
+     */
+    public ZonedDateTime getIssuedAt() {
+        return issuedAt;
+    }
+}
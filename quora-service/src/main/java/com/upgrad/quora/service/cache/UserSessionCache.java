@@ -0,0 +1,212 @@
+package com.upgrad.quora.service.cache;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.upgrad.quora.service.business.JwtTokenProvider;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.UserAuthTokenEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, read-through cache of user sessions keyed by access token. It sits in front of
+ * UserDao.getAuthToken so that authorizing a request does not need a round trip to the USER_AUTH
+ * table every time. Entries are evicted in least-recently-used order once the cache is full, and
+ * are reloaded from the database once their time-to-live has passed.
+ *
+ * <p>On a cache miss a JWT access token that verifies against the server key and has not been
+ * revoked is turned into a session straight from its claims, without any database access. Tokens
+ * that do not verify (legacy tokens, expired tokens) and revoked tokens fall back to USER_AUTH,
+ * which stays the source of truth for the signed out state. A cached session that is not signed out
+ * is checked against the revoked tokens on every hit, so that a signout or a user deletion loaded by
+ * RevokedTokenRegistry.refresh from another instance applies to the sessions already cached here.
+ *
+ * <p>Every invalidation moves the cache to a new generation, and a session loaded while the
+ * generation changed is returned but not cached, so that a load started before a signout cannot put
+ * the session as it was before the signout back.
+ */
+@Component
+public class UserSessionCache {
+
+    @Autowired private UserDao userDao;
+
+    @Autowired private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired private RevokedTokenRegistry revokedTokenRegistry;
+
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    private final Map<String, Entry> sessions;
+
+    /** Number of invalidations so far, guarded by sessions */
+    private long generation;
+
+    public UserSessionCache(
+            @Value("${quora.session-cache.max-size:10000}") final int maxSize,
+            @Value("${quora.session-cache.ttl-seconds:300}") final long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.sessions =
+                new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                        return size() > UserSessionCache.this.maxSize;
+                    }
+                };
+    }
+
+    /**
+     * This method returns the session for the given access token, loading it from the database when
+     * it is not cached or its cache entry has expired
+     *
+     * @param accessToken
+     * @return UserSession, or null if the access token does not exist in the database
+     */
+    public UserSession getSession(final String accessToken) {
+        if (accessToken == null) {
+            return null;
+        }
+        final long now = System.currentTimeMillis();
+        final long loadGeneration;
+        synchronized (sessions) {
+            Entry entry = sessions.get(accessToken);
+            if (entry != null
+                    && entry.expiresAtMillis > now
+                    && (entry.session.getLogoutAt() != null || !isRevoked(accessToken, entry.session))) {
+                return entry.session;
+            }
+            loadGeneration = generation;
+        }
+
+        UserSession session = verifySession(accessToken);
+        if (session == null) {
+            session = loadSession(accessToken);
+        }
+        if (session == null) {
+            return null;
+        }
+        synchronized (sessions) {
+            if (generation == loadGeneration) {
+                sessions.put(accessToken, new Entry(session, now + ttlMillis));
+            }
+        }
+        return session;
+    }
+
+    private UserSession verifySession(final String accessToken) {
+        DecodedJWT decodedJWT = jwtTokenProvider.verifyToken(accessToken);
+        if (decodedJWT == null || revokedTokenRegistry.isRevoked(accessToken, decodedJWT)) {
+            return null;
+        }
+        return new UserSession(
+                decodedJWT.getClaim(JwtTokenProvider.USER_ID_CLAIM).asInt(),
+                decodedJWT.getAudience().get(0),
+                decodedJWT.getClaim(JwtTokenProvider.ROLE_CLAIM).asString(),
+                ZonedDateTime.ofInstant(decodedJWT.getExpiresAt().toInstant(), ZoneId.systemDefault()),
+                null,
+                decodedJWT.getIssuedAt() == null
+                        ? null
+                        : ZonedDateTime.ofInstant(decodedJWT.getIssuedAt().toInstant(), ZoneId.systemDefault()));
+    }
+
+    private boolean isRevoked(final String accessToken, final UserSession session) {
+        return revokedTokenRegistry.isRevoked(
+                accessToken,
+                session.getUserUuid(),
+                session.getIssuedAt() == null ? null : Date.from(session.getIssuedAt().toInstant()));
+    }
+
+    private UserSession loadSession(final String accessToken) {
+        UserAuthTokenEntity userAuthTokenEntity = userDao.getAuthToken(accessToken);
+        if (userAuthTokenEntity == null) {
+            return null;
+        }
+        UserEntity user = userAuthTokenEntity.getUsers();
+        return new UserSession(
+                user.getId(),
+                user.getUuid(),
+                user.getRole(),
+                userAuthTokenEntity.getExpiresAt(),
+                userAuthTokenEntity.getLogoutAt(),
+                null);
+    }
+
+    /**
+     * This method removes the session of the given access token. If a transaction is active the
+     * entry is removed again once it commits, so that a concurrent request cannot re-cache the state
+     * that existed before the commit.
+     *
+     * @param accessToken
+     */
+    public void invalidate(final String accessToken) {
+        removeToken(accessToken);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            removeToken(accessToken);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * This method removes every cached session that belongs to the user with the given uuid
+     *
+     * @param userUuid
+     */
+    public void invalidateUser(final String userUuid) {
+        removeUser(userUuid);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            removeUser(userUuid);
+                        }
+                    });
+        }
+    }
+
+    private void removeToken(final String accessToken) {
+        synchronized (sessions) {
+            generation++;
+            sessions.remove(accessToken);
+        }
+    }
+
+    private void removeUser(final String userUuid) {
+        synchronized (sessions) {
+            generation++;
+            Iterator<Entry> iterator = sessions.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().session.getUserUuid().equals(userUuid)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final UserSession session;
+        private final long expiresAtMillis;
+
+        private Entry(final UserSession session, final long expiresAtMillis) {
+            this.session = session;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.upgrad.quora.service.common;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterable over a result set that is read from the database in fixed-size batches, each batch
+ * starting after the last element of the previous one (keyset pagination). Only one batch is held
+ * in memory at a time, so iterating over a large table does not grow the heap. Batches are fetched
+ * lazily while iterating, so the iteration may take place after the service method that created the
+ * iterable has returned.
+ *
+ * @param <T> type of the elements
+ */
+public abstract class BatchedIterable<T> implements Iterable<T> {
+
+    private final int batchSize;
+
+    protected BatchedIterable(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param last      last element of the previous batch, or null for the first batch
+     * @param batchSize maximum number of elements to fetch
+     * @return next batch, an empty or short batch ends the iteration
+     */
+    protected abstract List<T> fetchBatch(T last, int batchSize);
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private List<T> batch = Collections.emptyList();
+            private int index;
+            private T last;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (index < batch.size()) {
+                    return true;
+                }
+                if (exhausted) {
+                    return false;
+                }
+                batch = fetchBatch(last, batchSize);
+                index = 0;
+                exhausted = batch.size() < batchSize;
+                return !batch.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = batch.get(index++);
+                return last;
+            }
+        };
+    }
+}
@@ -13,6 +13,8 @@ public enum GenericExceptionCode {
     ATH_001("ATH-001", "This username does not exist"),
     /** These enum constants cover all errors related to code ATH-002 */
     ATH_002("ATH-002", "Password failed"),
+    /** These enum constants cover all errors related to code ATH-003 */
+    ATH_003("ATH-003", "Too many sign in attempts, try again later"),
     /** These enum constants cover all errors related to code SGR-001 */
     SGR_001_SIGNOUT("SGR-001", "User is not Signed in"),
     /** These enum constants cover all errors related to code ATHR-001 */
@@ -58,7 +60,17 @@ public enum GenericExceptionCode {
     ANS_001("ANS-001", "Entered answer uuid does not exist"),
     /** These enum constants cover all errors related to code QUES-001 */
     QUES_001_ANS_GETALL(
-            "QUES-001", "The question with entered uuid whose details are to be seen does not exist");
+            "QUES-001", "The question with entered uuid whose details are to be seen does not exist"),
+    /** These enum constants cover all errors related to code PAGE-001 */
+    PAGE_001("PAGE-001", "The cursor entered is invalid"),
+    /** These enum constants cover all errors related to code SRV-001 */
+    SRV_001("SRV-001", "The server is busy, please try again later"),
+    /** These enum constants cover all errors related to code IMP-001 */
+    IMP_001("IMP-001", "First name, last name, username, email and password are required"),
+    /** These enum constants cover all errors related to code IMP-002 */
+    IMP_002("IMP-002", "The users to import are not a JSON array or JSON lines of users"),
+    /** These enum constants cover all errors related to code IMP-003 */
+    IMP_003("IMP-003", "Too many users to import in one request");
 
     private static final Map<String, GenericExceptionCode> Lookup = new HashMap<>();
 
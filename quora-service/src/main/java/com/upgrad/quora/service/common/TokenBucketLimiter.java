@@ -0,0 +1,127 @@
+package com.upgrad.quora.service.common;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory rate limiter holding one token bucket per key. Every bucket starts full with capacity
+ * tokens and is refilled continuously at refillPerMinute tokens a minute; an attempt takes one token
+ * and is refused when the bucket is empty.
+ *
+ * <p>The buckets are spread over independent shards by the hash of their key, so that concurrent
+ * attempts on different keys rarely contend. Every shard keeps its buckets in least recently used
+ * order, which is also the order of their last refill. A bucket that has been idle long enough to be
+ * full again holds no state worth keeping, so every attempt drops the idle buckets at the head of its
+ * shard, stopping at the first one in use. A shard never holds more than its share of maxKeys
+ * buckets: a new key beyond it evicts the least recently used bucket, which gives that key a full
+ * bucket again if it comes back. Neither costs more than the buckets it drops.
+ */
+public class TokenBucketLimiter {
+
+    private static final int SHARDS = 16;
+
+    private final int capacity;
+
+    private final double tokensPerNano;
+
+    private final long idleNanos;
+
+    private final int maxKeysPerShard;
+
+    private final Shard[] shards = new Shard[SHARDS];
+
+    /**
+     * @param capacity        - maximum number of attempts in a burst
+     * @param refillPerMinute - number of attempts allowed a minute once the burst is used
+     * @param maxKeys         - maximum number of buckets held, the least recently used bucket being
+     *                        evicted beyond it
+     */
+    public TokenBucketLimiter(final int capacity, final int refillPerMinute, final int maxKeys) {
+        if (capacity < 1 || refillPerMinute < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("capacity, refillPerMinute and maxKeys must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.idleNanos = (long) Math.ceil(capacity / tokensPerNano);
+        this.maxKeysPerShard = Math.max(1, maxKeys / SHARDS);
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * This method takes a token from the bucket of the given key
+     *
+     * @param key
+     * @return 0 if the attempt is allowed, otherwise the number of milliseconds until a token is available
+     */
+    public long tryAcquire(final String key) {
+        final long now = System.nanoTime();
+        final Shard shard = shards[(key.hashCode() & 0x7fffffff) % SHARDS];
+        synchronized (shard) {
+            shard.dropIdle(now);
+            Bucket bucket = shard.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                shard.buckets.put(key, bucket);
+            }
+            return bucket.tryAcquire(now);
+        }
+    }
+
+    /**
+     * Buckets of the keys hashed to one shard, guarded by the shard itself. The map is in access order,
+     * so its head is the least recently used bucket
+     */
+    private final class Shard {
+
+        private final LinkedHashMap<String, Bucket> buckets =
+                new LinkedHashMap<String, Bucket>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(final Map.Entry<String, Bucket> eldest) {
+                        return size() > maxKeysPerShard;
+                    }
+                };
+
+        private void dropIdle(final long now) {
+            for (Iterator<Bucket> iterator = buckets.values().iterator(); iterator.hasNext(); ) {
+                if (!iterator.next().isIdle(now)) {
+                    return;
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    private final class Bucket {
+
+        private double tokens;
+
+        private long lastRefill;
+
+        private Bucket(final int tokens, final long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+        }
+
+        private long tryAcquire(final long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, TimeUnit.NANOSECONDS.toMillis((long) Math.ceil((1 - tokens) / tokensPerNano)));
+        }
+
+        private boolean isIdle(final long now) {
+            return now - lastRefill >= idleNanos;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.upgrad.quora.service.dao;
 
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -13,6 +14,9 @@ public class AdminDao {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private QueryStatistics queryStatistics;
+
     //This method is created to fetch the user details from the user table using uuid and delete.
     //This method is only called from the adminBussinessService once authorization of requesting user is complete.
     //This method returns the user that it fetched snd deleted to the businessservice layer.
@@ -22,7 +26,7 @@ public class AdminDao {
     public UserEntity deleteUser(final String uuid) {
 
         try {
-            UserEntity user = entityManager.createNamedQuery("userByUuid", UserEntity.class).setParameter("uuid", uuid).getSingleResult();
+            UserEntity user = queryStatistics.getSingleResult("userByUuid", entityManager.createNamedQuery("userByUuid", UserEntity.class).setParameter("uuid", uuid));
             entityManager.remove(user);
             return user;
         } catch (NoResultException nre) {
@@ -38,7 +42,7 @@ public class AdminDao {
     public UserAuthTokenEntity getAuthToken(final String authorizationToken ){
 
         try{
-            UserAuthTokenEntity userAuthEntity = entityManager.createNamedQuery("userAuthTokenByAccessToken", UserAuthTokenEntity.class).setParameter("accessToken",authorizationToken).getSingleResult();
+            UserAuthTokenEntity userAuthEntity = queryStatistics.getSingleResult("userAuthTokenByAccessToken", entityManager.createNamedQuery("userAuthTokenByAccessToken", UserAuthTokenEntity.class).setParameter("accessToken",authorizationToken));
             return userAuthEntity;
         }catch(NoResultException nre){
             return null;
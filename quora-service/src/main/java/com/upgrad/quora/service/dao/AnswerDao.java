@@ -1,13 +1,17 @@
 package com.upgrad.quora.service.dao;
 
 import com.upgrad.quora.service.entity.AnswerEntity;
-import com.upgrad.quora.service.entity.QuestionsEntity;
+import com.upgrad.quora.service.projection.AnswerDetails;
+import com.upgrad.quora.service.projection.AnswerSummary;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 @Repository
@@ -15,6 +19,8 @@ public class AnswerDao {
 
     @PersistenceContext private EntityManager entityManager;
 
+    @Autowired private QueryStatistics queryStatistics;
+
     /**
      * This method receives the Answer object to be persisted in the database
      *
@@ -35,27 +41,65 @@ public class AnswerDao {
             TypedQuery<AnswerEntity> answerByUuidQuery =
                     entityManager.createNamedQuery("findAnswerByUuid", AnswerEntity.class);
             answerByUuidQuery.setParameter("uuid", answerUuid);
-            return answerByUuidQuery.getSingleResult();
+            return queryStatistics.getSingleResult("findAnswerByUuid", answerByUuidQuery);
         } catch (NoResultException nrex) {
             return null;
         }
     }
 
     /**
-     * This method retrives list of answers for the given question
+     * This method retrives the uuid and text of the answers of the given question together with the
+     * question content, in a single SQL statement whatever the number of answers
      *
-     * @param questionsEntity
+     * @param questionUuid
      * @return
      */
-    public List<AnswerEntity> getAnswerByQUuid(QuestionsEntity questionsEntity) {
-        try {
-            TypedQuery<AnswerEntity> answerByQuidQuery =
-                    entityManager.createNamedQuery("findAnswersByQuuid", AnswerEntity.class);
-            answerByQuidQuery.setParameter("question_id", questionsEntity.getUuid());
-            return answerByQuidQuery.getResultList();
-        } catch (NoResultException e) {
-            return null;
+    public List<AnswerDetails> getAnswerDetailsByQUuid(final String questionUuid) {
+        return queryStatistics.getResultList(
+                "findAnswerDetailsByQuuid",
+                entityManager
+                        .createNamedQuery("findAnswerDetailsByQuuid", AnswerDetails.class)
+                        .setParameter("question_id", questionUuid));
+    }
+
+    /**
+     * This method retrives the batch of answers for the given question that follows the answer with
+     * the given id, in id order, as read-only rows carrying the question content. No entity is loaded,
+     * so the batches do not pile up in the persistence context while a listing is streamed
+     *
+     * @param questionUuid
+     * @param afterId id of the last answer of the previous batch, 0 for the first batch
+     * @param maxResults
+     * @return
+     */
+    public List<AnswerDetails> getAnswerDetailsByQUuidAfter(
+            final String questionUuid, final Integer afterId, final int maxResults) {
+        return queryStatistics.getResultList(
+                "findAnswerDetailsByQuuidAfter",
+                entityManager
+                        .createNamedQuery("findAnswerDetailsByQuuidAfter", AnswerDetails.class)
+                        .setParameter("question_id", questionUuid)
+                        .setParameter("id", afterId)
+                        .setMaxResults(maxResults));
+    }
+
+    /**
+     * This method counts the answers and finds the latest answer of each of the given questions, in a
+     * single aggregate SQL statement whatever the number of questions. Questions without answers have
+     * no summary
+     *
+     * @param questionIds
+     * @return
+     */
+    public List<AnswerSummary> getAnswerSummaries(final Collection<Integer> questionIds) {
+        if (questionIds.isEmpty()) {
+            return Collections.emptyList();
         }
+        return queryStatistics.getResultList(
+                "answerSummariesByQuestionIds",
+                entityManager
+                        .createNamedQuery("answerSummariesByQuestionIds", AnswerSummary.class)
+                        .setParameter("question_ids", questionIds));
     }
 
     /**
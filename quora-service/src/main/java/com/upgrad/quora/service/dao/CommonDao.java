@@ -1,6 +1,7 @@
 package com.upgrad.quora.service.dao;
 
 import com.upgrad.quora.service.entity.UserEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -13,6 +14,9 @@ public class CommonDao {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private QueryStatistics queryStatistics;
+
 
     //This method is created to fetch the user details from the user table using uuid.
     //This method is only called from the Business Service once authorization of requesting user is complete.
@@ -22,7 +26,7 @@ public class CommonDao {
 
     public UserEntity getUserProfile(final String uuid) {
         try {
-            UserEntity user = entityManager.createNamedQuery("userByUuid", UserEntity.class).setParameter("uuid", uuid).getSingleResult();
+            UserEntity user = queryStatistics.getSingleResult("userByUuid", entityManager.createNamedQuery("userByUuid", UserEntity.class).setParameter("uuid", uuid));
             return user;
         }catch (NoResultException nre){
             return null;
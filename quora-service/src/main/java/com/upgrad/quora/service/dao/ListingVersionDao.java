@@ -0,0 +1,85 @@
+package com.upgrad.quora.service.dao;
+
+import com.upgrad.quora.service.projection.ListingVersionRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class ListingVersionDao {
+
+    private static final String SELECT_LISTING_VERSION =
+            "SELECT NAME, VERSION, CHANGED_AT FROM LISTING_VERSION WHERE NAME = ?";
+
+    private static final String SELECT_CHANGED_LISTING_VERSIONS =
+            "SELECT NAME, VERSION, CHANGED_AT FROM LISTING_VERSION WHERE CHANGED_AT >= ?";
+
+    private static final String UPSERT_LISTING_VERSION =
+            "INSERT INTO LISTING_VERSION (NAME, VERSION, CHANGED_AT) VALUES (?, nextval('LISTING_VERSION_SEQ'), ?) "
+                    + "ON CONFLICT (NAME) DO UPDATE SET VERSION = EXCLUDED.VERSION, CHANGED_AT = EXCLUDED.CHANGED_AT "
+                    + "RETURNING NAME, VERSION, CHANGED_AT";
+
+    private static final RowMapper<ListingVersionRow> LISTING_VERSION_MAPPER =
+            (resultSet, rowNum) ->
+                    new ListingVersionRow(
+                            resultSet.getString("NAME"),
+                            resultSet.getLong("VERSION"),
+                            ZonedDateTime.ofInstant(resultSet.getTimestamp("CHANGED_AT").toInstant(), ZoneId.systemDefault()));
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private QueryStatistics queryStatistics;
+
+    /**
+     * This method fetches the current version of the listing with the given name
+     *
+     * @param name
+     * @return ListingVersionRow, or null if the listing has no version of its own
+     */
+    public ListingVersionRow getListingVersion(final String name) {
+        final List<ListingVersionRow> versions =
+                queryStatistics.query(
+                        "listingVersion", () -> jdbcTemplate.query(SELECT_LISTING_VERSION, LISTING_VERSION_MAPPER, name));
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    /**
+     * This method fetches the versions of the listings changed since the given time
+     *
+     * @param since
+     * @return
+     */
+    public List<ListingVersionRow> findListingVersions(final ZonedDateTime since) {
+        final Timestamp sinceTimestamp = Timestamp.from(since.toInstant());
+        return queryStatistics.query(
+                "changedListingVersions",
+                () -> jdbcTemplate.query(SELECT_CHANGED_LISTING_VERSIONS, LISTING_VERSION_MAPPER, sinceTimestamp));
+    }
+
+    /**
+     * This method gives each of the given listings a new version, in the given order. The rows stay
+     * locked until the current transaction ends, so it should be a short one of its own
+     *
+     * @param changedAt
+     * @param names
+     * @return the new versions
+     */
+    public List<ListingVersionRow> bumpListingVersions(final ZonedDateTime changedAt, final String... names) {
+        final Timestamp timestamp = Timestamp.from(changedAt.toInstant());
+        final List<ListingVersionRow> versions = new ArrayList<>(names.length);
+        for (String name : names) {
+            versions.addAll(
+                    queryStatistics.query(
+                            "bumpListingVersion",
+                            () -> jdbcTemplate.query(UPSERT_LISTING_VERSION, LISTING_VERSION_MAPPER, name, timestamp)));
+        }
+        return versions;
+    }
+}
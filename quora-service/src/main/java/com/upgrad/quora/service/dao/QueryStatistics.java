@@ -0,0 +1,182 @@
+package com.upgrad.quora.service.dao;
+
+import com.upgrad.quora.service.projection.QueryStatistic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.NoResultException;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Records, for every named query run by the DAOs, how many times it ran, how long it took in total
+ * and at most, and how many rows it returned or changed, since the application started. A query
+ * slower than quora.query-statistics.slow-query-ms is logged as a warning with its name, duration and
+ * rows, never with its parameters. The DAOs run their queries through this class, named as the
+ * NamedQuery or, for plain JDBC statements, as the DAO method.
+ */
+@Component
+public class QueryStatistics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryStatistics.class);
+
+    private final long slowQueryNanos;
+
+    private final Map<String, Statistic> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * @param slowQueryMillis - duration from which a query is logged as slow
+     */
+    public QueryStatistics(@Value("${quora.query-statistics.slow-query-ms:200}") final long slowQueryMillis) {
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+    }
+
+    /**
+     * This method runs the given query and records it under the given name
+     *
+     * @param queryName
+     * @param query
+     * @return the result list of the query
+     */
+    public <T> List<T> getResultList(final String queryName, final TypedQuery<T> query) {
+        final long start = System.nanoTime();
+        List<T> results = null;
+        try {
+            results = query.getResultList();
+            return results;
+        } finally {
+            record(queryName, System.nanoTime() - start, results == null ? 0 : results.size());
+        }
+    }
+
+    /**
+     * This method runs the given query and records it under the given name
+     *
+     * @param queryName
+     * @param query
+     * @return the single result of the query
+     * @throws NoResultException if the query returns no row, as TypedQuery.getSingleResult
+     */
+    public <T> T getSingleResult(final String queryName, final TypedQuery<T> query) {
+        final long start = System.nanoTime();
+        T result = null;
+        try {
+            result = query.getSingleResult();
+            return result;
+        } finally {
+            record(queryName, System.nanoTime() - start, result == null ? 0 : 1);
+        }
+    }
+
+    /**
+     * This method runs the given JDBC query and records it under the given name
+     *
+     * @param queryName
+     * @param query
+     * @return the rows returned by the query
+     */
+    public <T> List<T> query(final String queryName, final Supplier<List<T>> query) {
+        final long start = System.nanoTime();
+        List<T> results = null;
+        try {
+            results = query.get();
+            return results;
+        } finally {
+            record(queryName, System.nanoTime() - start, results == null ? 0 : results.size());
+        }
+    }
+
+    /**
+     * This method runs the given statement and records it under the given name
+     *
+     * @param queryName
+     * @param statement
+     * @return the number of rows changed by the statement
+     */
+    public int update(final String queryName, final Supplier<Integer> statement) {
+        final long start = System.nanoTime();
+        int rows = 0;
+        try {
+            rows = statement.get();
+            return rows;
+        } finally {
+            record(queryName, System.nanoTime() - start, rows);
+        }
+    }
+
+    /**
+     * This method runs the given batch of statements and records it, once, under the given name
+     *
+     * @param queryName
+     * @param statements
+     * @return the row counts of the statements, as JdbcTemplate.batchUpdate
+     */
+    public int[] batchUpdate(final String queryName, final Supplier<int[]> statements) {
+        final long start = System.nanoTime();
+        int[] counts = null;
+        try {
+            counts = statements.get();
+            return counts;
+        } finally {
+            long rows = 0;
+            if (counts != null) {
+                for (int count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            record(queryName, System.nanoTime() - start, rows);
+        }
+    }
+
+    /**
+     * This method returns the statistics of every query run so far, the longest running in total first
+     *
+     * @return snapshot of the statistics
+     */
+    public List<QueryStatistic> getStatistics() {
+        final List<QueryStatistic> snapshot = new ArrayList<>(statistics.size());
+        statistics.forEach((queryName, statistic) -> snapshot.add(statistic.snapshot(queryName)));
+        snapshot.sort(Comparator.comparingLong(QueryStatistic::getTotalNanos).reversed());
+        return snapshot;
+    }
+
+    private void record(final String queryName, final long nanos, final long rows) {
+        final Statistic statistic = statistics.computeIfAbsent(queryName, name -> new Statistic());
+        statistic.executions.increment();
+        statistic.totalNanos.add(nanos);
+        statistic.maxNanos.accumulate(nanos);
+        statistic.rows.add(rows);
+        if (nanos >= slowQueryNanos) {
+            statistic.slowExecutions.increment();
+            LOGGER.warn("Slow query {}: {} ms, {} rows", queryName, TimeUnit.NANOSECONDS.toMillis(nanos), rows);
+        }
+    }
+
+    private static final class Statistic {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder slowExecutions = new LongAdder();
+
+        private QueryStatistic snapshot(final String queryName) {
+            return new QueryStatistic(
+                    queryName,
+                    executions.sum(),
+                    totalNanos.sum(),
+                    maxNanos.get(),
+                    rows.sum(),
+                    slowExecutions.sum());
+        }
+    }
+}
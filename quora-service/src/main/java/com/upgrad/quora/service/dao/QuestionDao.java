@@ -1,14 +1,19 @@
 package com.upgrad.quora.service.dao;
 
 import com.upgrad.quora.service.entity.QuestionsEntity;
-import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.projection.QuestionDetails;
+import com.upgrad.quora.service.projection.QuestionMatch;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.List;
 
 /**
@@ -18,10 +23,45 @@ import java.util.List;
 @Repository
 public class QuestionDao {
 
-    @Autowired private UserDao userDao;
+    /**
+     * Questions whose content or one of whose answers matches the searched text, ranked by their best
+     * matching document. Each branch of the union finds its rows through a GIN index
+     */
+    private static final String SEARCH_QUESTIONS =
+            "WITH MATCHES AS ("
+                    + "SELECT Q.ID AS QUESTION_ID, ts_rank(Q.CONTENT_TSV, plainto_tsquery('pg_catalog.english', ?)) AS RANK "
+                    + "FROM QUESTION Q WHERE Q.CONTENT_TSV @@ plainto_tsquery('pg_catalog.english', ?) "
+                    + "UNION ALL "
+                    + "SELECT A.QUESTION_ID, ts_rank(A.ANS_TSV, plainto_tsquery('pg_catalog.english', ?)) "
+                    + "FROM ANSWER A WHERE A.ANS_TSV @@ plainto_tsquery('pg_catalog.english', ?)) "
+                    + "SELECT Q.ID, Q.UUID, Q.CONTENT, Q.DATE, MAX(M.RANK) AS RANK "
+                    + "FROM MATCHES M JOIN QUESTION Q ON Q.ID = M.QUESTION_ID GROUP BY Q.ID ";
+
+    private static final String SEARCH_QUESTIONS_FIRST_PAGE =
+            SEARCH_QUESTIONS + "ORDER BY RANK DESC, Q.ID DESC LIMIT ?";
+
+    private static final String SEARCH_QUESTIONS_PAGE_AFTER =
+            SEARCH_QUESTIONS
+                    + "HAVING MAX(M.RANK) < CAST(? AS REAL) OR (MAX(M.RANK) = CAST(? AS REAL) AND Q.ID < ?) "
+                    + "ORDER BY RANK DESC, Q.ID DESC LIMIT ?";
+
+    private static final RowMapper<QuestionMatch> QUESTION_MATCH_MAPPER =
+            (resultSet, rowNum) ->
+                    new QuestionMatch(
+                            new QuestionDetails(
+                                    resultSet.getInt("ID"),
+                                    resultSet.getString("UUID"),
+                                    resultSet.getString("CONTENT"),
+                                    ZonedDateTime.ofInstant(
+                                            resultSet.getTimestamp("DATE").toInstant(), ZoneId.systemDefault())),
+                            resultSet.getFloat("RANK"));
 
     @PersistenceContext private EntityManager entityManager;
 
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private QueryStatistics queryStatistics;
+
     /**
      * This method is used to persist newly created question
      *
@@ -32,19 +72,62 @@ public class QuestionDao {
     }
 
     /**
-     * This method is used to retreive all the questions in quora application from the database
+     * This method is used to retreive one page of the questions in quora application from the
+     * database, newest first, as read-only rows. The page starts strictly after the given (date, id) position, or at the
+     * newest question when no position is given, so the cost of a page does not depend on its depth. The
+     * position is bounded by "date <= :date" on its own, which the database can use as the start of the
+     * QUESTION(date, id) index scan; only the questions sharing the date of the position are filtered
      *
+     * @param afterDate date of the last question of the previous page, or null for the first page
+     * @param afterId id of the last question of the previous page, or null for the first page
+     * @param maxResults
      * @return
-     * @throws AuthorizationFailedException
      */
-    public List<QuestionsEntity> getAllQuestions() {
-        List<QuestionsEntity> questionList = null;
-
-        TypedQuery<QuestionsEntity> query =
-                entityManager.createNamedQuery("allQuestions", QuestionsEntity.class);
-        questionList = query.getResultList();
+    public List<QuestionDetails> getQuestionsPage(
+            final ZonedDateTime afterDate, final Integer afterId, final int maxResults) {
+        if (afterDate == null) {
+            return queryStatistics.getResultList(
+                    "questionDetailsFirstPage",
+                    entityManager
+                            .createNamedQuery("questionDetailsFirstPage", QuestionDetails.class)
+                            .setMaxResults(maxResults));
+        }
+        return queryStatistics.getResultList(
+                "questionDetailsPageAfter",
+                entityManager
+                        .createNamedQuery("questionDetailsPageAfter", QuestionDetails.class)
+                        .setParameter("date", afterDate)
+                        .setParameter("id", afterId)
+                        .setMaxResults(maxResults));
+    }
 
-        return questionList;
+    /**
+     * This method is used to search the questions whose content or one of whose answers contains the
+     * words of the given text, best match first, as read-only rows. The page starts strictly after the
+     * given (rank, id) position, or at the best match when no position is given
+     *
+     * @param text
+     * @param afterRank rank of the last question of the previous page, or null for the first page
+     * @param afterId id of the last question of the previous page, or null for the first page
+     * @param maxResults
+     * @return
+     */
+    public List<QuestionMatch> searchQuestions(
+            final String text, final Float afterRank, final Integer afterId, final int maxResults) {
+        if (afterRank == null) {
+            return queryStatistics.query(
+                    "searchQuestionsFirstPage",
+                    () ->
+                            jdbcTemplate.query(
+                                    SEARCH_QUESTIONS_FIRST_PAGE, QUESTION_MATCH_MAPPER, text, text, text, text, maxResults));
+        }
+        return queryStatistics.query(
+                "searchQuestionsPageAfter",
+                () ->
+                        jdbcTemplate.query(
+                                SEARCH_QUESTIONS_PAGE_AFTER,
+                                QUESTION_MATCH_MAPPER,
+                                text, text, text, text, afterRank, afterRank, afterId, maxResults));
     }
 
     /**
@@ -57,17 +140,18 @@ public class QuestionDao {
     }
 
     /**
-     * This method is used to get all the qestions belonging to a particular user, form the database
+     * This method is used to get all the qestions belonging to a particular user, form the database,
+     * as read-only rows
      *
      * @param userUuid
      * @return
      */
-    public List<QuestionsEntity> getQuestionsForUserId(String userUuid) {
+    public List<QuestionDetails> getQuestionsForUserId(String userUuid) {
         try {
-            TypedQuery<QuestionsEntity> query =
-                    entityManager.createNamedQuery("findQuestionsByUserId", QuestionsEntity.class);
+            TypedQuery<QuestionDetails> query =
+                    entityManager.createNamedQuery("findQuestionDetailsByUserId", QuestionDetails.class);
             query.setParameter("userUuid", userUuid);
-            return query.getResultList();
+            return queryStatistics.getResultList("findQuestionDetailsByUserId", query);
         } catch (NoResultException nrex) {
             return null;
         }
@@ -81,10 +165,11 @@ public class QuestionDao {
      */
     public QuestionsEntity getQuestionByUuid(String quesUuid) {
         try {
-            return entityManager
-                    .createNamedQuery("QuestionByUuid", QuestionsEntity.class)
-                    .setParameter("uuid", quesUuid)
-                    .getSingleResult();
+            return queryStatistics.getSingleResult(
+                    "QuestionByUuid",
+                    entityManager
+                            .createNamedQuery("QuestionByUuid", QuestionsEntity.class)
+                            .setParameter("uuid", quesUuid));
         } catch (NoResultException nre) {
             return null;
         }
@@ -1,27 +1,79 @@
 package com.upgrad.quora.service.dao;
 
+import com.upgrad.quora.service.entity.QuestionsEntity;
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.projection.Revocation;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Repository
 public class UserDao {
 
+    private static final String INSERT_USER_IF_ABSENT =
+            "INSERT INTO USERS (uuid, firstname, lastname, username, email, password, salt, country, aboutme, dob, "
+                    + "role, contactnumber) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String DELETE_STALE_AUTH_TOKENS =
+            "DELETE FROM USER_AUTH WHERE ID IN (SELECT ID FROM USER_AUTH WHERE LOGOUT_AT < ? OR EXPIRES_AT < ? "
+                    + "LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private static final String SELECT_REVOKED_AUTH_TOKENS =
+            "SELECT ACCESS_TOKEN AS SUBJECT, LOGOUT_AT AS REVOKED_AT, EXPIRES_AT FROM USER_AUTH "
+                    + "WHERE LOGOUT_AT >= ? AND EXPIRES_AT > ?";
+
+    private static final String INSERT_USER_REVOCATION =
+            "INSERT INTO REVOKED_USER (USER_UUID, REVOKED_AT, EXPIRES_AT) VALUES (?, ?, ?) "
+                    + "ON CONFLICT (USER_UUID) DO UPDATE SET REVOKED_AT = EXCLUDED.REVOKED_AT, EXPIRES_AT = EXCLUDED.EXPIRES_AT";
+
+    private static final String SELECT_USER_REVOCATIONS =
+            "SELECT USER_UUID AS SUBJECT, REVOKED_AT, EXPIRES_AT FROM REVOKED_USER WHERE REVOKED_AT >= ? AND EXPIRES_AT > ?";
+
+    private static final String DELETE_EXPIRED_USER_REVOCATIONS = "DELETE FROM REVOKED_USER WHERE EXPIRES_AT < ?";
+
+    private static final RowMapper<Revocation> REVOCATION_MAPPER =
+            (resultSet, rowNum) ->
+                    new Revocation(
+                            resultSet.getString("SUBJECT"),
+                            ZonedDateTime.ofInstant(resultSet.getTimestamp("REVOKED_AT").toInstant(), ZoneId.systemDefault()),
+                            ZonedDateTime.ofInstant(resultSet.getTimestamp("EXPIRES_AT").toInstant(), ZoneId.systemDefault()));
+
     @PersistenceContext private EntityManager entityManager;
 
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private QueryStatistics queryStatistics;
+
     /**
-     * This method persists a user in the Database
+     * This method persists a user in the Database. The insert is flushed straight away, so that a
+     * violation of the unique username or email constraint is raised by this method
      *
      * @param userEntity
      * @return persisted user entity
      */
     public UserEntity createUser(UserEntity userEntity) {
         entityManager.persist(userEntity);
+        entityManager.flush();
         return userEntity;
     }
 
@@ -37,28 +89,84 @@ public class UserDao {
             TypedQuery<UserEntity> userByUserNameQuery =
                     entityManager.createNamedQuery("findByUsername", UserEntity.class);
             userByUserNameQuery.setParameter("userByUserName", userName);
-            return userByUserNameQuery.getSingleResult();
+            return queryStatistics.getSingleResult("findByUsername", userByUserNameQuery);
         } catch (NoResultException nrex) {
             return null;
         }
     }
 
     /**
-     * This method finds a user by email with the help of a Named Query defined in the User Entity
-     * class
+     * This method inserts the given users in the Database in JDBC batches, within the current
+     * transaction. A user whose username or email is already taken is skipped instead of failing the
+     * batch. The users are not attached to the persistence context, and the cached results of the
+     * userByUuid query are evicted since Hibernate does not see these inserts
+     *
+     * @param userEntities
+     * @return for every user, in the same order, 0 if it was skipped, otherwise a positive row count
+     *     or Statement.SUCCESS_NO_INFO
+     */
+    public int[] createUsersIfAbsent(final List<UserEntity> userEntities) {
+        evictOnCommit(cache -> cache.evictQueryRegion(UserEntity.USER_BY_UUID_REGION));
+        return queryStatistics.batchUpdate("createUsersIfAbsent", () -> jdbcTemplate.batchUpdate(
+                INSERT_USER_IF_ABSENT,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        UserEntity userEntity = userEntities.get(i);
+                        ps.setString(1, userEntity.getUuid());
+                        ps.setString(2, userEntity.getFirstName());
+                        ps.setString(3, userEntity.getLastName());
+                        ps.setString(4, userEntity.getUsername());
+                        ps.setString(5, userEntity.getEmail());
+                        ps.setString(6, userEntity.getPassword());
+                        ps.setString(7, userEntity.getSalt());
+                        ps.setString(8, userEntity.getCountry());
+                        ps.setString(9, userEntity.getAboutMe());
+                        ps.setString(10, userEntity.getDob());
+                        ps.setString(11, userEntity.getRole());
+                        ps.setString(12, userEntity.getContactNumber());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return userEntities.size();
+                    }
+                }));
+    }
+
+    /**
+     * This method finds, in a single query, the users having any of the given usernames or emails,
+     * with the help of a Named Query defined in the User Entity class
      *
+     * @param userNames
+     * @param emails
+     * @return username and email of every matching user
+     */
+    public List<Object[]> findUsernamesAndEmails(
+            final Collection<String> userNames, final Collection<String> emails) {
+        return queryStatistics.getResultList(
+                "usernamesAndEmailsByUsernamesOrEmails",
+                entityManager
+                        .createNamedQuery("usernamesAndEmailsByUsernamesOrEmails", Object[].class)
+                        .setParameter("usernames", userNames)
+                        .setParameter("emails", emails));
+    }
+
+    /**
+     * This method finds, in a single query, the users having the given username or the given email
+     * with the help of a Named Query defined in the User Entity class
+     *
+     * @param userName
      * @param email
-     * @return Single User Entity
+     * @return usernames of the matching users, at most two
      */
-    public UserEntity findUserByEmail(String email) {
-        try {
-            TypedQuery<UserEntity> userByEmailQuery =
-                    entityManager.createNamedQuery("findByEmail", UserEntity.class);
-            userByEmailQuery.setParameter("userByEmail", email);
-            return userByEmailQuery.getSingleResult();
-        } catch (NoResultException nrex) {
-            return null;
-        }
+    public List<String> findUsernamesByUsernameOrEmail(final String userName, final String email) {
+        return queryStatistics.getResultList(
+                "usernamesByUsernameOrEmail",
+                entityManager
+                        .createNamedQuery("usernamesByUsernameOrEmail", String.class)
+                        .setParameter("username", userName)
+                        .setParameter("email", email));
     }
 
     /**
@@ -81,26 +189,140 @@ public class UserDao {
      */
     public UserAuthTokenEntity getAuthToken(String access_token) {
         try {
-            return entityManager
-                    .createNamedQuery("userAuthTokenByAccessToken", UserAuthTokenEntity.class)
-                    .setParameter("access_token", access_token)
-                    .getSingleResult();
+            return queryStatistics.getSingleResult(
+                    "userAuthTokenByAccessToken",
+                    entityManager
+                            .createNamedQuery("userAuthTokenByAccessToken", UserAuthTokenEntity.class)
+                            .setParameter("access_token", access_token));
         } catch (NoResultException nre) {
             return null;
         }
     }
 
     /**
-     * This method removes/deletes a User Entity record from the Database
+     * This method deletes up to limit access tokens that were signed out or expired before the given
+     * time, within the current transaction. Rows locked by another transaction, e.g. a signout in
+     * progress, are skipped and left for a later call
+     *
+     * @param before
+     * @param limit
+     * @return number of deleted access tokens
+     */
+    public int deleteStaleAuthTokens(final ZonedDateTime before, final int limit) {
+        final Timestamp timestamp = Timestamp.from(before.toInstant());
+        return queryStatistics.update(
+                "deleteStaleAuthTokens", () -> jdbcTemplate.update(DELETE_STALE_AUTH_TOKENS, timestamp, timestamp, limit));
+    }
+
+    /**
+     * This method retrieves the access tokens signed out since the given time that have not expired
+     * yet
+     *
+     * @param since
+     * @return the signed out access tokens, with their signout and expiry time
+     */
+    public List<Revocation> findRevokedAuthTokens(final ZonedDateTime since) {
+        final Timestamp sinceTimestamp = Timestamp.from(since.toInstant());
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        return queryStatistics.query(
+                "findRevokedAuthTokens",
+                () -> jdbcTemplate.query(SELECT_REVOKED_AUTH_TOKENS, REVOCATION_MAPPER, sinceTimestamp, now));
+    }
+
+    /**
+     * This method records, within the current transaction, that the access tokens of the given user
+     * issued up to the revocation time must be rejected until the given expiry time
+     *
+     * @param userUuid
+     * @param revokedAt
+     * @param expiresAt
+     */
+    public void createUserRevocation(
+            final String userUuid, final ZonedDateTime revokedAt, final ZonedDateTime expiresAt) {
+        final Timestamp revokedAtTimestamp = Timestamp.from(revokedAt.toInstant());
+        final Timestamp expiresAtTimestamp = Timestamp.from(expiresAt.toInstant());
+        queryStatistics.update(
+                "createUserRevocation",
+                () -> jdbcTemplate.update(INSERT_USER_REVOCATION, userUuid, revokedAtTimestamp, expiresAtTimestamp));
+    }
+
+    /**
+     * This method retrieves the user revocations recorded since the given time that have not expired
+     * yet
+     *
+     * @param since
+     * @return the revoked user uuids, with their revocation and expiry time
+     */
+    public List<Revocation> findUserRevocations(final ZonedDateTime since) {
+        final Timestamp sinceTimestamp = Timestamp.from(since.toInstant());
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        return queryStatistics.query(
+                "findUserRevocations",
+                () -> jdbcTemplate.query(SELECT_USER_REVOCATIONS, REVOCATION_MAPPER, sinceTimestamp, now));
+    }
+
+    /**
+     * This method deletes the user revocations that expired before the given time
+     *
+     * @param before
+     * @return number of deleted revocations
+     */
+    public int deleteExpiredUserRevocations(final ZonedDateTime before) {
+        final Timestamp timestamp = Timestamp.from(before.toInstant());
+        return queryStatistics.update(
+                "deleteExpiredUserRevocations", () -> jdbcTemplate.update(DELETE_EXPIRED_USER_REVOCATIONS, timestamp));
+    }
+
+    /**
+     * This method removes/deletes a User Entity record from the Database. The questions of the user
+     * are deleted by the Database (ON DELETE CASCADE), out of sight of the second-level cache, so the
+     * cached questions are evicted
      *
      * @param userEntity
      * @return UserEntity
      */
     public UserEntity deleteUser(UserEntity userEntity) {
         entityManager.remove(userEntity);
+        evictOnCommit(
+                cache -> {
+                    cache.evictEntityRegion(QuestionsEntity.class);
+                    cache.evictQueryRegion(QuestionsEntity.QUESTION_BY_UUID_REGION);
+                });
         return userEntity;
     }
 
+    /**
+     * This method applies the given eviction to the second-level cache now and, if a transaction is
+     * active, again once it commits, so that a concurrent transaction cannot re-cache the rows as they
+     * were before the commit
+     *
+     * @param eviction
+     */
+    private void evictOnCommit(final Consumer<Cache> eviction) {
+        final Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        eviction.accept(cache);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            eviction.accept(cache);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * This method returns a reference to the User Entity with the given primary key without loading
+     * it from the Database. It is used to associate newly created records with the signed in user
+     *
+     * @param userId
+     * @return UserEntity reference
+     */
+    public UserEntity getUserReference(final Integer userId) {
+        return entityManager.getReference(UserEntity.class, userId);
+    }
+
     /**
      * This method takes a User UUID as a parameter and checks whether the UUID is present in the
      * Database, using a Named Query defined in the User Entity class
@@ -110,10 +332,9 @@ public class UserDao {
      */
     public UserEntity getUserbyUuid(final String userUuid) {
         try {
-            return entityManager
-                    .createNamedQuery("userByUuid", UserEntity.class)
-                    .setParameter("uuid", userUuid)
-                    .getSingleResult();
+            return queryStatistics.getSingleResult(
+                    "userByUuid",
+                    entityManager.createNamedQuery("userByUuid", UserEntity.class).setParameter("uuid", userUuid));
         } catch (NoResultException nre) {
             return null;
         }
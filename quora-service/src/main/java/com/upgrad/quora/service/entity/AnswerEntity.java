@@ -10,13 +10,29 @@ import javax.validation.constraints.Size;
 @NamedQueries({
         @NamedQuery(name = "findAnswerByUuid", query = "select a from AnswerEntity a where uuid = :uuid"),
         @NamedQuery(
-                name = "findAnswersByQuuid",
-                query = "select a from AnswerEntity a where a.questionsEntity.uuid=:question_id")
+                name = "findAnswerDetailsByQuuid",
+                query =
+                        "select new com.upgrad.quora.service.projection.AnswerDetails(a.id, a.uuid, a.ans, q.content)"
+                                + " from AnswerEntity a join a.questionsEntity q where q.uuid = :question_id"
+                                + " order by a.id"),
+        @NamedQuery(
+                name = "findAnswerDetailsByQuuidAfter",
+                query =
+                        "select new com.upgrad.quora.service.projection.AnswerDetails(a.id, a.uuid, a.ans, q.content)"
+                                + " from AnswerEntity a join a.questionsEntity q"
+                                + " where q.uuid = :question_id and a.id > :id order by a.id"),
+        @NamedQuery(
+                name = "answerSummariesByQuestionIds",
+                query =
+                        "select new com.upgrad.quora.service.projection.AnswerSummary(a.questionsEntity.id, count(a), max(a.date))"
+                                + " from AnswerEntity a where a.questionsEntity.id in :question_ids"
+                                + " group by a.questionsEntity.id")
 })
 public class AnswerEntity {
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "answerIdGenerator")
+    @SequenceGenerator(name = "answerIdGenerator", sequenceName = "answer_id_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "uuid")
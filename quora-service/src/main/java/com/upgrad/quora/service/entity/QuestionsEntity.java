@@ -1,8 +1,11 @@
 package com.upgrad.quora.service.entity;
 
 import javax.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.QueryHints;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -12,19 +15,42 @@ import java.util.List;
 @Entity
 @Table(name = "QUESTION")
 @NamedQueries({
-        @NamedQuery(name = "allQuestions", query = "select q from QuestionsEntity q"),
+        @NamedQuery(
+                name = "questionDetailsFirstPage",
+                query =
+                        "select new com.upgrad.quora.service.projection.QuestionDetails(q.id, q.uuid, q.content, q.date)"
+                                + " from QuestionsEntity q order by q.date desc, q.id desc"),
+        @NamedQuery(
+                name = "questionDetailsPageAfter",
+                query =
+                        "select new com.upgrad.quora.service.projection.QuestionDetails(q.id, q.uuid, q.content, q.date)"
+                                + " from QuestionsEntity q where q.date <= :date and (q.date < :date or q.id < :id)"
+                                + " order by q.date desc, q.id desc"),
         @NamedQuery(
                 name = "QuestionByUuid",
-                query = "select q from QuestionsEntity q where q.uuid = :uuid"),
+                query = "select q from QuestionsEntity q where q.uuid = :uuid",
+                hints = {
+                        @QueryHint(name = QueryHints.CACHEABLE, value = "true"),
+                        @QueryHint(name = QueryHints.CACHE_REGION, value = QuestionsEntity.QUESTION_BY_UUID_REGION)
+                }),
         @NamedQuery(
-                name = "findQuestionsByUserId",
-                query = "select q from QuestionsEntity q where q.userEntity.uuid = :userUuid")
+                name = "findQuestionDetailsByUserId",
+                query =
+                        "select new com.upgrad.quora.service.projection.QuestionDetails(q.id, q.uuid, q.content, q.date)"
+                                + " from QuestionsEntity q where q.userEntity.uuid = :userUuid")
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class QuestionsEntity {
 
+    /** Query cache region of the QuestionByUuid named query */
+    public static final String QUESTION_BY_UUID_REGION = "query.QuestionByUuid";
+
+
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "questionIdGenerator")
+    @SequenceGenerator(name = "questionIdGenerator", sequenceName = "question_id_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "uuid")
@@ -16,7 +16,8 @@ public class UserAuthTokenEntity {
 
     @Id
     @Column(name = "ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "userAuthIdGenerator")
+    @SequenceGenerator(name = "userAuthIdGenerator", sequenceName = "user_auth_id_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "uuid")
@@ -1,8 +1,11 @@
 package com.upgrad.quora.service.entity;
 
 import javax.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.QueryHints;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -19,12 +22,32 @@ import java.util.List;
         @NamedQuery(
                 name = "findByEmail",
                 query = "select u from UserEntity u where u.email=:userByEmail"),
-        @NamedQuery(name = "userByUuid", query = "select u from UserEntity u where u.uuid = :uuid")
+        @NamedQuery(
+                name = "userByUuid",
+                query = "select u from UserEntity u where u.uuid = :uuid",
+                hints = {
+                        @QueryHint(name = QueryHints.CACHEABLE, value = "true"),
+                        @QueryHint(name = QueryHints.CACHE_REGION, value = UserEntity.USER_BY_UUID_REGION)
+                }),
+        @NamedQuery(
+                name = "usernamesByUsernameOrEmail",
+                query = "select u.username from UserEntity u where u.username = :username or u.email = :email"),
+        @NamedQuery(
+                name = "usernamesAndEmailsByUsernamesOrEmails",
+                query =
+                        "select u.username, u.email from UserEntity u where u.username in :usernames or u.email in :emails")
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class UserEntity {
+
+    /** Query cache region of the userByUuid named query */
+    public static final String USER_BY_UUID_REGION = "query.userByUuid";
+
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usersIdGenerator")
+    @SequenceGenerator(name = "usersIdGenerator", sequenceName = "users_id_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "uuid")
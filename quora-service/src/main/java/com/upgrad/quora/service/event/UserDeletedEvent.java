@@ -0,0 +1,18 @@
+package com.upgrad.quora.service.event;
+
+/**
+ * Published by UserBusinessService when a user is deleted, for the caches holding data of that user.
+ * Listeners interested in the committed deletion only use a TransactionalEventListener.
+ */
+public final class UserDeletedEvent {
+
+    private final String userUuid;
+
+    public UserDeletedEvent(final String userUuid) {
+        this.userUuid = userUuid;
+    }
+
+    public String getUserUuid() {
+        return userUuid;
+    }
+}
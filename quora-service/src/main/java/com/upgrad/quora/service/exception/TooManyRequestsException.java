@@ -0,0 +1,54 @@
+package com.upgrad.quora.service.exception;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * TooManyRequestsException is thrown when a client exceeds the number of attempts allowed to it (limit), the client may retry after retryAfterSeconds.
+ */
+public class TooManyRequestsException extends Exception {
+    private final String code;
+    private final String errorMessage;
+    private final int limit;
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(final String code, final String errorMessage, final int limit, final long retryAfterSeconds) {
+        this.code = code;
+        this.errorMessage = errorMessage;
+        this.limit = limit;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void printStackTrace() {
+        super.printStackTrace();
+    }
+
+    @Override
+    public void printStackTrace(PrintStream s) {
+        super.printStackTrace(s);
+    }
+
+    @Override
+    public void printStackTrace(PrintWriter s) {
+        super.printStackTrace(s);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
+
@@ -0,0 +1,39 @@
+package com.upgrad.quora.service.projection;
+
+/**
+ * Read-only row of the answer listing of a question: the uuid and text of the answer together with
+ * the content of its question. It is built directly by a JPQL constructor expression, so listing the
+ * answers neither loads nor tracks any entity. The id is only carried to position the next batch of
+ * a streamed listing.
+ */
+public final class AnswerDetails {
+
+    private final Integer id;
+    private final String uuid;
+    private final String ans;
+    private final String questionContent;
+
+    public AnswerDetails(
+            final Integer id, final String uuid, final String ans, final String questionContent) {
+        this.id = id;
+        this.uuid = uuid;
+        this.ans = ans;
+        this.questionContent = questionContent;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getAns() {
+        return ans;
+    }
+
+    public String getQuestionContent() {
+        return questionContent;
+    }
+}
@@ -0,0 +1,36 @@
+package com.upgrad.quora.service.projection;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Number of answers and date of the latest answer of a question, as shown by the summary mode of the
+ * question listing. It is built directly by a JPQL constructor expression over the answers of a whole
+ * page of questions; a question without answers has no row and is summarised by NO_ANSWERS.
+ */
+public final class AnswerSummary {
+
+    public static final AnswerSummary NO_ANSWERS = new AnswerSummary(null, 0L, null);
+
+    private final Integer questionId;
+    private final Long answerCount;
+    private final ZonedDateTime latestAnswerDate;
+
+    public AnswerSummary(
+            final Integer questionId, final Long answerCount, final ZonedDateTime latestAnswerDate) {
+        this.questionId = questionId;
+        this.answerCount = answerCount;
+        this.latestAnswerDate = latestAnswerDate;
+    }
+
+    public Integer getQuestionId() {
+        return questionId;
+    }
+
+    public Long getAnswerCount() {
+        return answerCount;
+    }
+
+    public ZonedDateTime getLatestAnswerDate() {
+        return latestAnswerDate;
+    }
+}
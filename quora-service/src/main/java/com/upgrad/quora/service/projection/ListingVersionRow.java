@@ -0,0 +1,33 @@
+package com.upgrad.quora.service.projection;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Read-only row of LISTING_VERSION: the name of a listing, its version, taken from
+ * LISTING_VERSION_SEQ so that a later change always has a greater version, and the time of the
+ * change.
+ */
+public final class ListingVersionRow {
+
+    private final String name;
+    private final long version;
+    private final ZonedDateTime changedAt;
+
+    public ListingVersionRow(final String name, final long version, final ZonedDateTime changedAt) {
+        this.name = name;
+        this.version = version;
+        this.changedAt = changedAt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public ZonedDateTime getChangedAt() {
+        return changedAt;
+    }
+}
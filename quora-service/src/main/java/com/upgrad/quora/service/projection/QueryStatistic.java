@@ -0,0 +1,54 @@
+package com.upgrad.quora.service.projection;
+
+/**
+ * Read-only snapshot of the statistics of one named query, as recorded by QueryStatistics since the
+ * application started.
+ */
+public final class QueryStatistic {
+
+    private final String queryName;
+    private final long executionCount;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long rowCount;
+    private final long slowCount;
+
+    public QueryStatistic(
+            final String queryName,
+            final long executionCount,
+            final long totalNanos,
+            final long maxNanos,
+            final long rowCount,
+            final long slowCount) {
+        this.queryName = queryName;
+        this.executionCount = executionCount;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.rowCount = rowCount;
+        this.slowCount = slowCount;
+    }
+
+    public String getQueryName() {
+        return queryName;
+    }
+
+    public long getExecutionCount() {
+        return executionCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getSlowCount() {
+        return slowCount;
+    }
+}
@@ -0,0 +1,40 @@
+package com.upgrad.quora.service.projection;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Read-only row of a question listing. It is built directly by a JPQL constructor expression, so
+ * listing questions neither loads the question entities and their users nor tracks them in the
+ * persistence context. The id is only carried to position the next page of a keyset pagination.
+ */
+public final class QuestionDetails {
+
+    private final Integer id;
+    private final String uuid;
+    private final String content;
+    private final ZonedDateTime date;
+
+    public QuestionDetails(
+            final Integer id, final String uuid, final String content, final ZonedDateTime date) {
+        this.id = id;
+        this.uuid = uuid;
+        this.content = content;
+        this.date = date;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public ZonedDateTime getDate() {
+        return date;
+    }
+}
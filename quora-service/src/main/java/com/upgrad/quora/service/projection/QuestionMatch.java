@@ -0,0 +1,25 @@
+package com.upgrad.quora.service.projection;
+
+/**
+ * Read-only row of a question search: a question whose content or one of whose answers matches the
+ * searched text, with the rank of its best matching document. The rank is only carried to position
+ * the next page of the results.
+ */
+public final class QuestionMatch {
+
+    private final QuestionDetails question;
+    private final float rank;
+
+    public QuestionMatch(final QuestionDetails question, final float rank) {
+        this.question = question;
+        this.rank = rank;
+    }
+
+    public QuestionDetails getQuestion() {
+        return question;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+}
@@ -0,0 +1,33 @@
+package com.upgrad.quora.service.projection;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Read-only row of a revocation stored in the database: the access token of a signed out session
+ * (USER_AUTH) or the uuid of a deleted user (REVOKED_USER), when it was revoked and until when it
+ * must be kept, after which the tokens it covers have expired anyway.
+ */
+public final class Revocation {
+
+    private final String subject;
+    private final ZonedDateTime revokedAt;
+    private final ZonedDateTime expiresAt;
+
+    public Revocation(final String subject, final ZonedDateTime revokedAt, final ZonedDateTime expiresAt) {
+        this.subject = subject;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public ZonedDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public ZonedDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
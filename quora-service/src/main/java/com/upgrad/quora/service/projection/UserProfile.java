@@ -0,0 +1,83 @@
+package com.upgrad.quora.service.projection;
+
+import com.upgrad.quora.service.entity.UserEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Read-only public profile of a user, as cached by UserProfileCache. The version is a digest of the
+ * profile fields, computed once, which changes whenever any of them changes; it is used as the ETag
+ * of the profile.
+ */
+public final class UserProfile {
+
+    private final String uuid;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String aboutMe;
+    private final String username;
+    private final String dob;
+    private final String contactNumber;
+    private final String country;
+    private final String version;
+
+    public UserProfile(final UserEntity userEntity) {
+        this.uuid = userEntity.getUuid();
+        this.firstName = userEntity.getFirstName();
+        this.lastName = userEntity.getLastName();
+        this.email = userEntity.getEmail();
+        this.aboutMe = userEntity.getAboutMe();
+        this.username = userEntity.getUsername();
+        this.dob = userEntity.getDob();
+        this.contactNumber = userEntity.getContactNumber();
+        this.country = userEntity.getCountry();
+        this.version =
+                DigestUtils.md5DigestAsHex(
+                        Arrays.asList(uuid, firstName, lastName, email, aboutMe, username, dob, contactNumber, country)
+                                .toString()
+                                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getAboutMe() {
+        return aboutMe;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getDob() {
+        return dob;
+    }
+
+    public String getContactNumber() {
+        return contactNumber;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+}